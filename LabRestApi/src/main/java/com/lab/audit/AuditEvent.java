@@ -0,0 +1,25 @@
+package com.lab.audit;
+
+import java.time.LocalDateTime;
+
+/**
+ * Событие аудита HTTP-запроса
+ * <p>
+ * Создается в потоке запроса, форматируется в строку уже в потоке записи.
+ */
+public record AuditEvent(
+        LocalDateTime timestamp,
+        String method,
+        String uri,
+        String username,
+        String ip,
+        int status,
+        String error
+) {
+
+    public String format() {
+        return "Interceptor: [" + timestamp + "] " + method + " запрос от пользователя " + username +
+                " к " + uri + " (IP: " + ip + ") => статус: " + status +
+                (error != null ? ", ошибка: " + error : "");
+    }
+}
@@ -0,0 +1,154 @@
+package com.lab.audit;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Асинхронная запись событий аудита
+ * <p>
+ * Поток запроса только кладет событие в {@link AuditRingBuffer}. Отдельный поток
+ * забирает события пачками и пишет их в логгер AUDIT одним сообщением на пачку,
+ * поэтому на пачку приходится одна запись в файл.
+ */
+@Slf4j
+@Component
+public class AuditLogWriter {
+
+    private static final Logger AUDIT_LOG = LoggerFactory.getLogger("AUDIT");
+    private static final long MIN_BACKOFF_NANOS = TimeUnit.MICROSECONDS.toNanos(10);
+    private static final long MAX_BACKOFF_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final AuditRingBuffer<AuditEvent> buffer;
+    private final AuditOverflowPolicy overflowPolicy;
+    private final long blockTimeoutNanos;
+    private final int batchSize;
+    private final long idleParkNanos;
+
+    private final LongAdder droppedEvents = new LongAdder();
+    private long reportedDroppedEvents;
+
+    private volatile boolean running;
+    private Thread writerThread;
+
+    public AuditLogWriter(
+            @Value("${audit.buffer-size:8192}") int bufferSize,
+            @Value("${audit.batch-size:256}") int batchSize,
+            @Value("${audit.overflow-policy:DROP}") AuditOverflowPolicy overflowPolicy,
+            @Value("${audit.block-timeout:PT0.05S}") Duration blockTimeout,
+            @Value("${audit.flush-interval:PT0.01S}") Duration flushInterval
+    ) {
+        this.buffer = new AuditRingBuffer<>(bufferSize);
+        this.batchSize = batchSize;
+        this.overflowPolicy = overflowPolicy;
+        this.blockTimeoutNanos = blockTimeout.toNanos();
+        this.idleParkNanos = flushInterval.toNanos();
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+        writerThread = new Thread(this::writeLoop, "audit-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(writerThread);
+        writerThread.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    /**
+     * Публикация события, не выполняет ввод-вывод
+     *
+     * @param event событие аудита
+     * @return false, если событие отброшено из-за переполнения буфера
+     */
+    public boolean publish(AuditEvent event) {
+        if (buffer.offer(event)) {
+            return true;
+        }
+        if (overflowPolicy == AuditOverflowPolicy.BLOCK && offerWithTimeout(event)) {
+            return true;
+        }
+        droppedEvents.increment();
+        return false;
+    }
+
+    public long getDroppedEvents() {
+        return droppedEvents.sum();
+    }
+
+    public int getQueuedEvents() {
+        return buffer.size();
+    }
+
+    /**
+     * Ожидание места в буфере с экспоненциально растущей паузой (10 мкс - 1 мс):
+     * поток запроса не занимает ядро, пока писатель разбирает буфер
+     */
+    private boolean offerWithTimeout(AuditEvent event) {
+        long deadline = System.nanoTime() + blockTimeoutNanos;
+        long backoff = MIN_BACKOFF_NANOS;
+        while (true) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return false;
+            }
+            LockSupport.unpark(writerThread);
+            LockSupport.parkNanos(Math.min(backoff, remaining));
+            if (buffer.offer(event)) {
+                return true;
+            }
+            backoff = Math.min(backoff * 2, MAX_BACKOFF_NANOS);
+        }
+    }
+
+    private void writeLoop() {
+        List<AuditEvent> batch = new ArrayList<>(batchSize);
+        StringBuilder lines = new StringBuilder();
+        while (running || buffer.size() > 0) {
+            if (buffer.drainTo(batch, batchSize) == 0) {
+                reportDroppedEvents();
+                LockSupport.parkNanos(idleParkNanos);
+                continue;
+            }
+            for (AuditEvent event : batch) {
+                if (!lines.isEmpty()) {
+                    lines.append(System.lineSeparator());
+                }
+                lines.append(event.format());
+            }
+            try {
+                AUDIT_LOG.info(lines.toString());
+            } catch (RuntimeException e) {
+                log.error("Ошибка записи пачки аудита из {} событий", batch.size(), e);
+            }
+            batch.clear();
+            lines.setLength(0);
+        }
+        reportDroppedEvents();
+    }
+
+    private void reportDroppedEvents() {
+        long dropped = droppedEvents.sum();
+        if (dropped != reportedDroppedEvents) {
+            log.warn("Буфер аудита переполнен, отброшено событий: {} (всего {})",
+                    dropped - reportedDroppedEvents, dropped);
+            reportedDroppedEvents = dropped;
+        }
+    }
+}
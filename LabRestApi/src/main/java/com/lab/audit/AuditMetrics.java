@@ -0,0 +1,31 @@
+package com.lab.audit;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Метрики буфера аудита
+ * <p>
+ * Spring Boot регистрирует бин {@link MeterBinder} во всех реестрах actuator, поэтому
+ * отброшенные события видны в /actuator/metrics/audit.events.dropped, а не только в журнале.
+ */
+@Component
+@RequiredArgsConstructor
+public class AuditMetrics implements MeterBinder {
+
+    private final AuditLogWriter auditLogWriter;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("audit.events.dropped", auditLogWriter, AuditLogWriter::getDroppedEvents)
+                .description("События аудита, отброшенные из-за переполнения буфера")
+                .register(registry);
+        Gauge.builder("audit.events.queued", auditLogWriter, AuditLogWriter::getQueuedEvents)
+                .description("События аудита, ожидающие записи в буфере")
+                .register(registry);
+    }
+}
@@ -0,0 +1,16 @@
+package com.lab.audit;
+
+/**
+ * Поведение при заполненном буфере аудита
+ */
+public enum AuditOverflowPolicy {
+    /**
+     * Событие отбрасывается сразу, поток запроса не ждет (по умолчанию)
+     */
+    DROP,
+    /**
+     * Поток запроса ждет освобождения места не дольше audit.block-timeout, затем событие отбрасывается.
+     * Ожидание выполняется паузами, но при постоянном переполнении добавляет задержку каждому запросу
+     */
+    BLOCK
+}
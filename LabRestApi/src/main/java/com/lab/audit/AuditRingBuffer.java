@@ -0,0 +1,100 @@
+package com.lab.audit;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Ограниченный lock-free кольцевой буфер: много писателей, один читатель
+ * <p>
+ * Каждая ячейка хранит номер последовательности. Писатель занимает позицию через CAS
+ * по tail и публикует элемент записью sequence = позиция + 1. Читатель забирает элемент,
+ * когда видит опубликованную ячейку, и освобождает ее для следующего круга.
+ *
+ * @param <E> тип элементов
+ */
+public class AuditRingBuffer<E> {
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<E> elements;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;
+
+    public AuditRingBuffer(int requestedCapacity) {
+        if (requestedCapacity < 2) {
+            throw new IllegalArgumentException("Размер буфера должен быть не меньше 2");
+        }
+        this.capacity = Integer.highestOneBit(requestedCapacity - 1) << 1;
+        this.mask = capacity - 1;
+        this.elements = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Добавление элемента, безопасно для любого числа потоков
+     *
+     * @param element элемент
+     * @return false, если буфер заполнен
+     */
+    public boolean offer(E element) {
+        long position;
+        while (true) {
+            position = tail.get();
+            long difference = sequences.get(index(position)) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    break;
+                }
+            } else if (difference < 0) {
+                return false;
+            }
+        }
+        int index = index(position);
+        elements.set(index, element);
+        sequences.set(index, position + 1);
+        return true;
+    }
+
+    /**
+     * Забрать до maxElements элементов. Вызывается только из одного потока-читателя
+     *
+     * @param sink        список для элементов
+     * @param maxElements максимальное количество
+     * @return количество забранных элементов
+     */
+    public int drainTo(List<? super E> sink, int maxElements) {
+        long position = head;
+        int drained = 0;
+        while (drained < maxElements) {
+            int index = index(position);
+            if (sequences.get(index) != position + 1) {
+                break;
+            }
+            sink.add(elements.get(index));
+            elements.set(index, null);
+            sequences.set(index, position + capacity);
+            position++;
+            drained++;
+        }
+        head = position;
+        return drained;
+    }
+
+    public int size() {
+        return (int) Math.max(0, Math.min(capacity, tail.get() - head));
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    private int index(long position) {
+        return (int) (position & mask);
+    }
+}
@@ -0,0 +1,27 @@
+package com.lab.cache;
+
+import java.util.Collection;
+
+/**
+ * Рассылка вытеснений кэша остальным узлам приложения
+ * <p>
+ * Локальные кэши вытесняет сам вызывающий код, шина только сообщает другим узлам,
+ * какие ключи устарели.
+ */
+public interface CacheInvalidationBus {
+
+    /**
+     * Вытеснить ключи на остальных узлах
+     *
+     * @param cacheName имя кэша
+     * @param keys      ключи
+     */
+    void publish(String cacheName, Collection<?> keys);
+
+    /**
+     * Очистить кэш целиком на остальных узлах
+     *
+     * @param cacheName имя кэша
+     */
+    void publishClear(String cacheName);
+}
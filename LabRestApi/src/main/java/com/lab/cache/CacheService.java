@@ -5,10 +5,19 @@ import com.lab.entity.Patient;
 import com.lab.entity.Test;
 import com.lab.entity.TestType;
 
+import java.util.Collection;
+
 public interface CacheService {
     void evictPatientCaches(Patient patient);
 
     void evictOrderCaches(Order order);
     void evictTestCaches(Test test);
     void evictTestTypeCaches(TestType testType);
+
+    void evictOrderCachesByIds(Collection<Long> orderIds);
+    void evictTestCachesByIds(Collection<Long> testIds);
+
+    boolean isKnownMissing(String cacheName, Long id);
+    void markMissing(String cacheName, Long id);
+    void evictMissing(String cacheName, Long id);
 }
@@ -0,0 +1,16 @@
+package com.lab.cache;
+
+import com.lab.entity.Patient;
+
+/**
+ * Ключ кэша поиска пациентов по ФИО
+ * <p>
+ * Сравнивается по всем трем полям, в отличие от хеша, поэтому разные ФИО
+ * не могут попасть в одну запись кэша.
+ */
+public record PatientSearchKey(String lastName, String firstName, String middleName) {
+
+    public static PatientSearchKey of(Patient patient) {
+        return new PatientSearchKey(patient.getLastName(), patient.getFirstName(), patient.getMiddleName());
+    }
+}
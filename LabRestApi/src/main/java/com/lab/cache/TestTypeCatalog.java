@@ -0,0 +1,16 @@
+package com.lab.cache;
+
+import com.lab.entity.TestType;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface TestTypeCatalog {
+    Optional<TestType> findById(Long id);
+    Optional<TestType> findByCode(String code);
+    List<TestType> findAll();
+
+    void put(TestType testType);
+    void remove(Long id);
+    void reload();
+}
@@ -1,28 +1,66 @@
 package com.lab.cache.impl;
 
+import com.lab.cache.CacheInvalidationBus;
 import com.lab.cache.CacheService;
+import com.lab.cache.PatientSearchKey;
 import com.lab.entity.Order;
 import com.lab.entity.Patient;
 import com.lab.entity.Test;
 import com.lab.entity.TestType;
+import com.lab.pdf.PdfReportCache;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
 
 
 
 @Service
 public class CacheServiceImpl implements CacheService {
 
+    private static final String NOT_FOUND = "notFound";
+
+    private final CacheManager cacheManager;
+    private final ObjectProvider<CacheInvalidationBus> invalidationBus;
+    private final PdfReportCache pdfReportCache;
+
+    /**
+     * @param invalidationBus шина межузловой инвалидации, есть только при cache.invalidation.enabled=true
+     */
+    public CacheServiceImpl(
+            CacheManager cacheManager,
+            ObjectProvider<CacheInvalidationBus> invalidationBus,
+            PdfReportCache pdfReportCache
+    ) {
+        this.cacheManager = cacheManager;
+        this.invalidationBus = invalidationBus;
+        this.pdfReportCache = pdfReportCache;
+    }
 
+    /**
+     * Вытеснение пациента и результатов поиска, в которые он попадает
+     * <p>
+     * Поисковые записи вытесняются сразу и повторно после коммита: поиск, выполненный
+     * до коммита, мог успеть положить в кэш список без изменений.
+     */
     @Override
-    @Caching(evict = {
-            @CacheEvict(value = "patients", key = "#patient.id"),
-            @CacheEvict(value = "patientsByBirthDate", key = "#patient.birthDate"),
-            @CacheEvict(value = "patientsByFio", key = "T(java.util.Objects).hash(#patient.lastName, #patient.firstName, #patient.middleName)")
-    })
     public void evictPatientCaches(Patient patient) {
-
+        evictNowAndAfterCommit("patients", patient.getId());
+        evictNowAndAfterCommit("patientsByFio", PatientSearchKey.of(patient));
+        if (patient.getBirthDate() != null) {
+            evictNowAndAfterCommit("patientsByBirthDate", patient.getBirthDate());
+            publish("patientsByBirthDate", List.of(patient.getBirthDate()));
+        }
+        publish("patients", List.of(patient.getId()));
+        // Составной ключ не передается строкой, поэтому на других узлах кэш очищается целиком
+        invalidationBus.ifAvailable(bus -> bus.publishClear("patientsByFio"));
     }
 
     @Override
@@ -30,18 +68,110 @@ public class CacheServiceImpl implements CacheService {
             @CacheEvict(value = "orders", key = "#order.id")
     })
     public void evictOrderCaches(Order order) {
+        publish("orders", List.of(order.getId()));
     }
 
 
     @Override
     @CacheEvict(value = "tests", key = "#test.id")
     public void evictTestCaches(Test test) {
+        pdfReportCache.evict(test.getId());
+        publish("tests", List.of(test.getId()));
     }
 
+    /**
+     * Типы исследований хранятся в справочнике в памяти, а не в кэше: оповещение
+     * только перезагружает справочник на других узлах
+     */
     @Override
-    @CacheEvict(value = "testTypes", key = "#testType.id")
     public void evictTestTypeCaches(TestType testType) {
+        publish("testTypes", List.of(testType.getId()));
+    }
+
+    /**
+     * Вытеснение заявок по списку id после массового удаления или смены статуса
+     * <p>
+     * Записи вытесняются сразу и повторно после коммита.
+     *
+     * @param orderIds id удаленных или измененных заявок
+     */
+    @Override
+    public void evictOrderCachesByIds(Collection<Long> orderIds) {
+        orderIds.forEach(id -> evictNowAndAfterCommit("orders", id));
+        publish("orders", orderIds);
+    }
+
+    /**
+     * Вытеснение лаб. исследований по списку id после массового удаления или изменения
+     * <p>
+     * Записи вытесняются сразу и повторно после коммита, чтобы чтение до коммита
+     * не оставило в кэше старое значение.
+     *
+     * @param testIds id удаленных или измененных исследований
+     */
+    @Override
+    public void evictTestCachesByIds(Collection<Long> testIds) {
+        testIds.forEach(id -> evictNowAndAfterCommit("tests", id));
+        publish("tests", testIds);
+        testIds.forEach(pdfReportCache::evict);
     }
-}
 
+    /**
+     * Проверка кэша отсутствующих id (кэш notFound)
+     * <p>
+     * Повторные запросы несуществующих id отклоняются без обращения к БД
+     * до истечения короткого TTL записи.
+     *
+     * @param cacheName кэш сущности (patients, orders, tests)
+     * @param id        id сущности
+     */
+    @Override
+    public boolean isKnownMissing(String cacheName, Long id) {
+        Cache cache = cacheManager.getCache(NOT_FOUND);
+        return cache != null && cache.get(notFoundKey(cacheName, id)) != null;
+    }
+
+    @Override
+    public void markMissing(String cacheName, Long id) {
+        Cache cache = cacheManager.getCache(NOT_FOUND);
+        if (cache != null) {
+            cache.put(notFoundKey(cacheName, id), Boolean.TRUE);
+        }
+    }
+
+    /**
+     * Снятие отметки об отсутствии при создании сущности
+     * <p>
+     * Отметка снимается и после коммита: поиск этого id до коммита мог успеть ее поставить.
+     */
+    @Override
+    public void evictMissing(String cacheName, Long id) {
+        String key = notFoundKey(cacheName, id);
+        evictNowAndAfterCommit(NOT_FOUND, key);
+        publish(NOT_FOUND, List.of(key));
+    }
+
+    private static String notFoundKey(String cacheName, Long id) {
+        return cacheName + ":" + id;
+    }
 
+    private void evictNowAndAfterCommit(String cacheName, Object key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache == null) {
+            return;
+        }
+        cache.evict(key);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.evict(key);
+                }
+            });
+        }
+    }
+
+    private void publish(String cacheName, Collection<?> keys) {
+        invalidationBus.ifAvailable(bus -> bus.publish(cacheName, keys));
+    }
+}
@@ -0,0 +1,273 @@
+package com.lab.cache.impl;
+
+import com.lab.cache.CacheInvalidationBus;
+import com.lab.cache.TestTypeCatalog;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Межузловая инвалидация кэшей через PostgreSQL LISTEN/NOTIFY
+ * <p>
+ * Вытеснения копятся в памяти и раз в flush-interval уходят одним pg_notify на кэш,
+ * поэтому всплеск изменений одной заявки дает одно сообщение. Публикация выполняется
+ * после коммита транзакции, чтобы другие узлы не перечитали старые данные.
+ * <p>
+ * Формат сообщения: {@code узел|кэш|ключ1,ключ2} или {@code узел|кэш|*} для полной очистки.
+ * Свои сообщения узел пропускает. После потери соединения слушатель переподключается
+ * и очищает кэши сущностей целиком, так как часть сообщений могла быть пропущена.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "cache.invalidation", name = "enabled", havingValue = "true")
+public class PgNotifyCacheInvalidationBus implements CacheInvalidationBus {
+
+    private static final String CLEAR = "*";
+    // Предел NOTIFY - 8000 байт, оставляем запас под имя узла и кэша
+    private static final int MAX_PAYLOAD_BYTES = 7000;
+    private static final List<String> ENTITY_CACHES = List.of(
+            "patients", "patientsByFio", "patientsByBirthDate", "orders", "tests", "testTypes", "notFound");
+
+    private final CacheManager cacheManager;
+    private final TestTypeCatalog testTypeCatalog;
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSourceProperties dataSourceProperties;
+    private final String channel;
+    private final String nodeId;
+    private final int maxKeys;
+    private final Duration reconnectDelay;
+
+    private final ConcurrentHashMap<String, Set<String>> pending = new ConcurrentHashMap<>();
+
+    private volatile boolean running;
+    private Thread listenerThread;
+
+    public PgNotifyCacheInvalidationBus(
+            CacheManager cacheManager,
+            TestTypeCatalog testTypeCatalog,
+            JdbcTemplate jdbcTemplate,
+            DataSourceProperties dataSourceProperties,
+            @Value("${cache.invalidation.channel:lab_cache_invalidation}") String channel,
+            @Value("${cache.invalidation.node-id:}") String nodeId,
+            @Value("${cache.invalidation.max-keys:500}") int maxKeys,
+            @Value("${cache.invalidation.reconnect-delay:PT5S}") Duration reconnectDelay
+    ) {
+        this.cacheManager = cacheManager;
+        this.testTypeCatalog = testTypeCatalog;
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSourceProperties = dataSourceProperties;
+        this.channel = channel;
+        this.nodeId = nodeId.isBlank() ? UUID.randomUUID().toString().substring(0, 8) : nodeId;
+        this.maxKeys = maxKeys;
+        this.reconnectDelay = reconnectDelay;
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+        listenerThread = new Thread(this::listenLoop, "cache-invalidation-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        listenerThread.interrupt();
+        listenerThread.join(TimeUnit.SECONDS.toMillis(5));
+        flush();
+    }
+
+    @Override
+    public void publish(String cacheName, Collection<?> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        List<String> values = keys.stream().map(String::valueOf).toList();
+        afterCommit(() -> enqueue(cacheName, values));
+    }
+
+    @Override
+    public void publishClear(String cacheName) {
+        afterCommit(() -> enqueue(cacheName, List.of(CLEAR)));
+    }
+
+    /**
+     * Отправка накопленных вытеснений: одно сообщение на кэш (или несколько, если ключи
+     * не помещаются в одно). Слишком длинный список заменяется полной очисткой кэша.
+     */
+    @Scheduled(fixedDelayString = "${cache.invalidation.flush-interval:PT0.05S}")
+    public void flush() {
+        for (String cacheName : pending.keySet()) {
+            Set<String> keys = pending.remove(cacheName);
+            if (keys == null || keys.isEmpty()) {
+                continue;
+            }
+            try {
+                if (keys.contains(CLEAR) || keys.size() > maxKeys) {
+                    notify(cacheName, CLEAR);
+                } else {
+                    for (String chunk : chunks(keys)) {
+                        notify(cacheName, chunk);
+                    }
+                }
+            } catch (RuntimeException e) {
+                log.warn("Не удалось отправить инвалидацию кэша {}: {}", cacheName, e.getMessage());
+            }
+        }
+    }
+
+    private void enqueue(String cacheName, Collection<String> keys) {
+        pending.compute(cacheName, (name, current) -> {
+            Set<String> merged = current == null ? new HashSet<>() : current;
+            merged.addAll(keys);
+            return merged;
+        });
+    }
+
+    private void notify(String cacheName, String keys) {
+        jdbcTemplate.queryForList("SELECT pg_notify(?, ?)", channel, nodeId + "|" + cacheName + "|" + keys);
+    }
+
+    private List<String> chunks(Set<String> keys) {
+        List<String> chunks = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        for (String key : keys) {
+            int length = key.getBytes(StandardCharsets.UTF_8).length;
+            if (!current.isEmpty() && current.length() + length + 1 > MAX_PAYLOAD_BYTES) {
+                chunks.add(current.toString());
+                current.setLength(0);
+            }
+            if (!current.isEmpty()) {
+                current.append(',');
+            }
+            current.append(key);
+        }
+        chunks.add(current.toString());
+        return chunks;
+    }
+
+    private void listenLoop() {
+        boolean reconnect = false;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(
+                    dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(),
+                    dataSourceProperties.determinePassword())) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                if (reconnect) {
+                    ENTITY_CACHES.forEach(this::clearLocal);
+                    log.info("Слушатель инвалидации кэшей переподключен, локальные кэши очищены");
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(1000);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            apply(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Соединение слушателя инвалидации кэшей потеряно: {}", e.getMessage());
+                reconnect = true;
+                try {
+                    Thread.sleep(reconnectDelay.toMillis());
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    void apply(String payload) {
+        String[] parts = payload.split("\\|", 3);
+        if (parts.length != 3 || parts[0].equals(nodeId)) {
+            return;
+        }
+        String cacheName = parts[1];
+        if (CLEAR.equals(parts[2])) {
+            clearLocal(cacheName);
+            return;
+        }
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            Function<String, Object> keyParser = keyParser(cacheName);
+            for (String key : parts[2].split(",")) {
+                cache.evict(keyParser.apply(key));
+            }
+        }
+        if ("testTypes".equals(cacheName)) {
+            testTypeCatalog.reload();
+        }
+    }
+
+    private void clearLocal(String cacheName) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.clear();
+        }
+        if ("testTypes".equals(cacheName)) {
+            testTypeCatalog.reload();
+        }
+    }
+
+    /**
+     * Ключи передаются строками, тип восстанавливается по имени кэша
+     */
+    private static Function<String, Object> keyParser(String cacheName) {
+        return switch (cacheName) {
+            case "patientsByBirthDate" -> LocalDate::parse;
+            case "notFound" -> key -> key;
+            default -> Long::valueOf;
+        };
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.lab.cache.impl;
+
+import com.lab.cache.TestTypeCatalog;
+import com.lab.entity.TestType;
+import com.lab.repository.TestTypeRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+
+/**
+ * Справочник типов исследований в памяти
+ * <p>
+ * Все типы загружаются при старте в неизменяемый снимок с индексами по id и коду.
+ * Чтение идет без блокировок и без обращения к БД. Изменения создают новый снимок
+ * и атомарно подменяют текущий; внутри транзакции подмена выполняется после коммита.
+ * Возвращаемые объекты общие для всех потоков и не должны изменяться.
+ */
+@Slf4j
+@Service
+public class TestTypeCatalogImpl implements TestTypeCatalog {
+
+    private final TestTypeRepository testTypeRepository;
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(Snapshot.of(List.of()));
+
+    public TestTypeCatalogImpl(TestTypeRepository testTypeRepository) {
+        this.testTypeRepository = testTypeRepository;
+    }
+
+    @PostConstruct
+    @Override
+    public void reload() {
+        List<TestType> testTypes = testTypeRepository.findAll().stream()
+                .map(TestTypeCatalogImpl::copyOf)
+                .toList();
+        snapshot.set(Snapshot.of(testTypes));
+        log.info("Справочник типов исследований загружен: {}", testTypes.size());
+    }
+
+    @Override
+    public Optional<TestType> findById(Long id) {
+        return Optional.ofNullable(snapshot.get().byId().get(id));
+    }
+
+    @Override
+    public Optional<TestType> findByCode(String code) {
+        return Optional.ofNullable(snapshot.get().byCode().get(code));
+    }
+
+    @Override
+    public List<TestType> findAll() {
+        return snapshot.get().all();
+    }
+
+    @Override
+    public void put(TestType testType) {
+        TestType copy = copyOf(testType);
+        afterCommit(current -> {
+            Map<Long, TestType> byId = new LinkedHashMap<>(current.byId());
+            byId.put(copy.getId(), copy);
+            return Snapshot.of(byId.values());
+        });
+    }
+
+    @Override
+    public void remove(Long id) {
+        afterCommit(current -> {
+            Map<Long, TestType> byId = new LinkedHashMap<>(current.byId());
+            byId.remove(id);
+            return Snapshot.of(byId.values());
+        });
+    }
+
+    private void afterCommit(UnaryOperator<Snapshot> change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    snapshot.updateAndGet(change);
+                }
+            });
+        } else {
+            snapshot.updateAndGet(change);
+        }
+    }
+
+    private static TestType copyOf(TestType testType) {
+        return new TestType(
+                testType.getId(),
+                testType.getName(),
+                testType.getCode(),
+                testType.getDescription(),
+                testType.getPrice(),
+                testType.getUnit(),
+                testType.getReferenceLow(),
+                testType.getReferenceHigh(),
+                testType.getCriticalLow(),
+                testType.getCriticalHigh()
+        );
+    }
+
+    private record Snapshot(List<TestType> all, Map<Long, TestType> byId, Map<String, TestType> byCode) {
+
+        static Snapshot of(Iterable<TestType> testTypes) {
+            List<TestType> all = new ArrayList<>();
+            testTypes.forEach(all::add);
+            all.sort(Comparator.comparing(TestType::getId));
+
+            Map<Long, TestType> byId = new LinkedHashMap<>();
+            Map<String, TestType> byCode = new LinkedHashMap<>();
+            for (TestType testType : all) {
+                byId.put(testType.getId(), testType);
+                if (testType.getCode() != null) {
+                    byCode.put(testType.getCode(), testType);
+                }
+            }
+            return new Snapshot(List.copyOf(all), Map.copyOf(byId), Map.copyOf(byCode));
+        }
+    }
+}
@@ -1,30 +1,100 @@
 package com.lab.config;
 
+import com.github.benmanes.caffeine.cache.CacheLoader;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.CaffeineSpec;
+import com.lab.repository.OrderRepository;
+import com.lab.repository.PatientRepository;
+import com.lab.repository.TestRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
-import java.util.concurrent.TimeUnit;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @EnableCaching
 @Configuration
+@EnableConfigurationProperties(CaffeineCacheProperties.class)
 public class CacheConfig {
 
+    /**
+     * Кэши с отдельными спецификациями из cache.caffeine.specs
+     * <p>
+     * Для всех кэшей включен recordStats: при подключенном actuator статистика
+     * (попадания, вытеснения, время загрузки) публикуется как метрики cache.*.
+     * <p>
+     * Кэши сущностей по id (patients, orders, tests) строятся как AsyncLoadingCache:
+     * при refreshAfterWrite устаревшая запись отдается сразу, а перезагрузка
+     * выполняется одна на ключ в фоновом пуле.
+     */
     @Bean
-    public CaffeineCacheManager cacheManager() {
+    public CaffeineCacheManager cacheManager(
+            CaffeineCacheProperties properties,
+            @Value("${token.user-cache-ttl:PT30S}") Duration userCacheTtl,
+            PatientRepository patientRepository,
+            OrderRepository orderRepository,
+            TestRepository testRepository
+    ) {
         CaffeineCacheManager cacheManager = new CaffeineCacheManager(
                 "patients",
                 "patientsByFio",
                 "patientsByBirthDate",
                 "orders",
                 "tests",
-                "testTypes"
+                "notFound"
         );
-        cacheManager.setCaffeine(Caffeine.newBuilder()
-                .maximumSize(500)
-                .expireAfterWrite(10, TimeUnit.MINUTES));
+        // Значение null из загрузчика удаляет запись: сущность удалена в БД
+        Map<String, CacheLoader<Object, Object>> loaders = Map.of(
+                "patients", id -> patientRepository.findProjectedById((Long) id).orElse(null),
+                "orders", id -> orderRepository.findProjectedById((Long) id).orElse(null),
+                "tests", id -> testRepository.findProjectedById((Long) id).orElse(null)
+        );
+        Executor refreshExecutor = refreshExecutor(properties.getRefreshThreads());
+
+        cacheManager.setCaffeine(builder(properties.getSpec()));
+        properties.getSpecs().forEach((name, spec) -> {
+            CacheLoader<Object, Object> loader = loaders.get(name);
+            if (loader != null) {
+                cacheManager.registerCustomCache(name, builder(spec).executor(refreshExecutor).buildAsync(loader));
+            } else {
+                cacheManager.registerCustomCache(name, builder(spec).build());
+            }
+        });
+        // Короткий TTL: изменения роли и удаление пользователя должны применяться быстро
+        cacheManager.registerCustomCache("users", Caffeine.newBuilder()
+                .maximumSize(1000)
+                .expireAfterWrite(userCacheTtl)
+                .recordStats()
+                .build());
         return cacheManager;
     }
+
+    private static Caffeine<Object, Object> builder(String spec) {
+        Caffeine<Object, Object> builder = Caffeine.from(CaffeineSpec.parse(spec)).recordStats();
+        if (spec.contains("maximumWeight")) {
+            builder.weigher((Object key, Object value) ->
+                    value instanceof Collection<?> collection ? Math.max(1, collection.size()) : 1);
+        }
+        return builder;
+    }
+
+    /**
+     * Отдельный пул, чтобы блокирующие запросы к БД не занимали общий ForkJoinPool
+     */
+    private static Executor refreshExecutor(int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "cache-refresh-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
 }
@@ -0,0 +1,31 @@
+package com.lab.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Настройки кэшей Caffeine из application.yml (cache.caffeine)
+ * <p>
+ * spec применяется ко всем кэшам, specs переопределяет его для отдельных кэшей.
+ * Формат строки - CaffeineSpec, например "maximumSize=500,expireAfterWrite=10m".
+ * Если задан maximumWeight, вес записи равен числу элементов в значении-коллекции (1 для остальных).
+ * refreshAfterWrite допустим только для кэшей с загрузчиком (patients, orders, tests).
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "cache.caffeine")
+public class CaffeineCacheProperties {
+
+    private String spec = "maximumSize=500,expireAfterWrite=10m";
+
+    private Map<String, String> specs = new HashMap<>();
+
+    /**
+     * Потоки фонового обновления записей (refreshAfterWrite)
+     */
+    private int refreshThreads = 2;
+}
@@ -0,0 +1,27 @@
+package com.lab.config;
+
+import java.util.Comparator;
+
+/**
+ * Порядок файлов changelog для includeAll в master.xml
+ * <p>
+ * Liquibase по умолчанию сортирует пути как строки, из-за чего "10_..." оказывается
+ * раньше "1_...". Здесь файлы сравниваются по числовому префиксу имени.
+ */
+public class ChangelogFileComparator implements Comparator<String> {
+
+    @Override
+    public int compare(String left, String right) {
+        int result = Long.compare(numericPrefix(left), numericPrefix(right));
+        return result != 0 ? result : left.compareTo(right);
+    }
+
+    private static long numericPrefix(String path) {
+        String fileName = path.substring(path.lastIndexOf('/') + 1);
+        int end = 0;
+        while (end < fileName.length() && Character.isDigit(fileName.charAt(end))) {
+            end++;
+        }
+        return end == 0 ? Long.MAX_VALUE : Long.parseLong(fileName.substring(0, end));
+    }
+}
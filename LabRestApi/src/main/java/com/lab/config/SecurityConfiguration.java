@@ -2,6 +2,7 @@ package com.lab.config;
 
 import com.lab.security.JwtAuthenticationFilter;
 import com.lab.service.impl.UserServiceImpl;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -45,6 +46,8 @@ public class SecurityConfiguration {
                     return corsConfiguration;
                 }))
                 .authorizeHttpRequests(request -> request
+                        // Асинхронная отправка (потоковые PDF) продолжает уже авторизованный запрос
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers("/api/v1/auth/**").permitAll()
                         .requestMatchers("/api/v1/notifications/**").permitAll()
                         .requestMatchers(
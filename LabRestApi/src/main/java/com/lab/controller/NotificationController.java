@@ -2,10 +2,12 @@ package com.lab.controller;
 
 
 import com.lab.dto.request.NotificationRequestDTO;
+import com.lab.dto.response.NotificationBatchResponseDTO;
 import com.lab.entity.Notification;
 import com.lab.exception.ErrorResponse;
 import com.lab.mapper.impl.NotificationMapperImpl;
 import com.lab.repository.NotificationRepository;
+import com.lab.service.NotificationService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -13,13 +15,17 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDateTime;
+import java.util.List;
 
 
 @RestController
@@ -31,6 +37,7 @@ public class NotificationController {
 
     private final NotificationRepository notificationRepository;
     private final NotificationMapperImpl notificationMapper;
+    private final NotificationService notificationService;
 
     @PostMapping
     @SuppressWarnings("unused")
@@ -54,4 +61,49 @@ public class NotificationController {
         notificationRepository.save(notification);
         return ResponseEntity.ok().build();
     }
+
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @SuppressWarnings("unused")
+    @Operation(
+            summary = "Пакетный прием уведомлений",
+            description = "Принимает массив уведомлений и сохраняет их в БД JDBC-пачками"
+    )
+    @ApiResponse(
+            responseCode = "200",
+            description = "Корректные уведомления сохранены, в ответе количество сохраненных и пропущенных",
+            content = @Content(schema = @Schema(implementation = NotificationBatchResponseDTO.class))
+    )
+    @ApiResponse(
+            responseCode = "400",
+            description = "Некорректный формат запроса",
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+    )
+    public ResponseEntity<NotificationBatchResponseDTO> receiveNotifications(@RequestBody List<NotificationRequestDTO> requestDTOs) {
+        NotificationBatchResponseDTO response = notificationService.saveNotifications(requestDTOs);
+        log.debug("Принято уведомлений: {}, пропущено: {}", response.getSaved(), response.getSkipped());
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    @SuppressWarnings("unused")
+    @Operation(
+            summary = "Потоковый прием уведомлений",
+            description = "Принимает уведомления в формате NDJSON (по одному JSON-объекту на строку) " +
+                    "и сохраняет их в БД по мере чтения тела запроса"
+    )
+    @ApiResponse(
+            responseCode = "200",
+            description = "Корректные уведомления сохранены, в ответе количество сохраненных и пропущенных",
+            content = @Content(schema = @Schema(implementation = NotificationBatchResponseDTO.class))
+    )
+    @ApiResponse(
+            responseCode = "400",
+            description = "Некорректный формат запроса",
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+    )
+    public ResponseEntity<NotificationBatchResponseDTO> receiveNotificationStream(InputStream body) throws IOException {
+        NotificationBatchResponseDTO response = notificationService.saveNotifications(body);
+        log.debug("Принято уведомлений из потока: {}, пропущено: {}", response.getSaved(), response.getSkipped());
+        return ResponseEntity.ok(response);
+    }
 }
@@ -1,13 +1,18 @@
 package com.lab.controller;
 
 import com.lab.dto.request.OrderRequestDTO;
+import com.lab.dto.request.OrderStatusUpdateRequestDTO;
 import com.lab.dto.response.OrderResponseDTO;
+import com.lab.dto.response.OrderStatusUpdateResponseDTO;
 import com.lab.dto.response.TestResponseDTO;
 import com.lab.exception.ErrorResponse;
+import com.lab.pdf.TestReport;
 import com.lab.service.impl.OrderServiceImpl;
+import com.lab.service.impl.ReportServiceImpl;
 import com.lab.entity.Status;
 import com.lab.util.PaginationUtil;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -17,12 +22,18 @@ import jakarta.validation.Valid;
 import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -31,9 +42,11 @@ import java.util.List;
 public class OrderController {
 
     private final OrderServiceImpl orderServiceImpl;
+    private final ReportServiceImpl reportServiceImpl;
 
-    public OrderController(OrderServiceImpl orderServiceImpl) {
+    public OrderController(OrderServiceImpl orderServiceImpl, ReportServiceImpl reportServiceImpl) {
         this.orderServiceImpl = orderServiceImpl;
+        this.reportServiceImpl = reportServiceImpl;
     }
 
 
@@ -41,7 +54,7 @@ public class OrderController {
     @SuppressWarnings("unused")
     @Operation(
             summary = "Получить все заявки",
-            description = "Возвращает список всех заявок. Реализована пагинация.",
+            description = "Возвращает список всех заявок. Реализована пагинация (offset или keyset по параметру after).",
             security = { @SecurityRequirement(name = "bearerAuth") }
     )
     @ApiResponse(
@@ -54,6 +67,11 @@ public class OrderController {
             description = "Заявки не найдены",
             content = @Content(schema = @Schema(implementation = ErrorResponse.class))
     )
+    @ApiResponse(
+            responseCode = "400",
+            description = "Некорректный курсор или sort вместе с after",
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+    )
     @ApiResponse(
             responseCode = "401",
             description = "Требуется авторизация. Необходим токен.",
@@ -62,8 +80,21 @@ public class OrderController {
     public ResponseEntity<List<OrderResponseDTO>> getAllOrders(
             @ParameterObject
             @PageableDefault(size = 50)
-            Pageable pageable
+            Pageable pageable,
+            @Parameter(description = "Курсор для keyset-пагинации. Пустое значение - первая страница. Несовместим с sort")
+            @RequestParam(required = false) String after,
+            @Parameter(description = "Вернуть общее количество в X-Total-Count (только для keyset-пагинации)")
+            @RequestParam(defaultValue = "false") boolean count
     ) {
+        if (after != null) {
+            Slice<OrderResponseDTO> slice = orderServiceImpl.getOrdersAfter(
+                    PaginationUtil.decodeCursor(after, pageable), pageable.getPageSize());
+            Long totalCount = count ? orderServiceImpl.countOrders() : null;
+            HttpHeaders headers = PaginationUtil.generateCursorHttpHeaders(
+                    slice, OrderResponseDTO::getId, totalCount, "/api/v1/orders");
+            return new ResponseEntity<>(slice.getContent(), headers, HttpStatus.OK);
+        }
+
         Page<OrderResponseDTO> orders = orderServiceImpl.getAllOrders(pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(orders, "/api/v1/orders");
         return new ResponseEntity<>(orders.getContent(), headers, HttpStatus.OK);
@@ -132,6 +163,11 @@ public class OrderController {
             description = "Заявка не найдена",
             content = @Content(schema = @Schema(implementation = ErrorResponse.class))
     )
+    @ApiResponse(
+            responseCode = "409",
+            description = "Переход из текущего статуса недопустим",
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+    )
     public ResponseEntity<OrderResponseDTO> updateOrderStatus(
             @PathVariable Long id,
             @Valid @RequestParam Status status
@@ -141,6 +177,35 @@ public class OrderController {
     }
 
 
+    @PutMapping("/status")
+    @SuppressWarnings("unused")
+    @Operation(
+            summary = "Массово обновить статус заявок",
+            description = "Переводит заявки из списка в новый статус одним запросом к БД. " +
+                    "Заявки, которые не найдены или из статуса которых переход недопустим, возвращаются в skippedIds",
+            security = { @SecurityRequirement(name = "bearerAuth") })
+    @ApiResponse(
+            responseCode = "200",
+            description = "Статусы обновлены",
+            content = @Content(schema = @Schema(implementation = OrderStatusUpdateResponseDTO.class))
+    )
+    @ApiResponse(
+            responseCode = "400",
+            description = "Некорректный запрос",
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+    )
+    @ApiResponse(
+            responseCode = "409",
+            description = "В указанный статус переход недопустим",
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+    )
+    public ResponseEntity<OrderStatusUpdateResponseDTO> updateOrderStatuses(
+            @Valid @RequestBody OrderStatusUpdateRequestDTO requestDTO
+    ) {
+        return ResponseEntity.ok(orderServiceImpl.updateOrderStatuses(requestDTO.getIds(), requestDTO.getStatus()));
+    }
+
+
     @GetMapping("/patient/{patientId}")
     @SuppressWarnings("unused")
     @Operation(
@@ -206,4 +271,58 @@ public class OrderController {
         orderServiceImpl.deleteOrder(id);
         return ResponseEntity.noContent().build();
     }
-}
\ No newline at end of file
+
+    @GetMapping("/{id}/pdf")
+    @Operation(
+            summary = "Выгружает PDF отчет по заявке",
+            description = "Генерирует PDF со всеми лаб. исследованиями заявки",
+            security = { @SecurityRequirement(name = "bearerAuth") }
+    )
+    @ApiResponse(
+            responseCode = "200",
+            description = "PDF файл успешно сгенерирован",
+            content = @Content(mediaType = "application/pdf")
+    )
+    @ApiResponse(
+            responseCode = "404",
+            description = "Заявка или ее исследования не найдены",
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+    )
+    public ResponseEntity<StreamingResponseBody> generateOrderPdf(@PathVariable Long id) {
+        List<TestReport> reports = reportServiceImpl.getOrderReport(id);
+        return pdfResponse(out -> reportServiceImpl.writeReportPdf(reports, out), "order_" + id + ".pdf");
+    }
+
+    @GetMapping("/pdf")
+    @Operation(
+            summary = "Выгружает PDF отчет по заявкам за день",
+            description = "Генерирует один PDF по всем заявкам, созданным в указанный день",
+            security = { @SecurityRequirement(name = "bearerAuth") }
+    )
+    @ApiResponse(
+            responseCode = "200",
+            description = "PDF файл успешно сгенерирован",
+            content = @Content(mediaType = "application/pdf")
+    )
+    @ApiResponse(
+            responseCode = "404",
+            description = "Заявок за указанный день не найдено",
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+    )
+    public ResponseEntity<StreamingResponseBody> generateDailyPdf(
+            @Parameter(description = "День создания заявок", example = "2025-03-01")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date
+    ) {
+        List<TestReport> reports = reportServiceImpl.getDailyReport(date);
+        return pdfResponse(out -> reportServiceImpl.writeReportPdf(reports, out), "orders_" + date + ".pdf");
+    }
+
+    private static ResponseEntity<StreamingResponseBody> pdfResponse(StreamingResponseBody body, String filename) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_PDF);
+        headers.setContentDisposition(ContentDisposition.builder("attachment")
+                .filename(filename)
+                .build());
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
+    }
+}
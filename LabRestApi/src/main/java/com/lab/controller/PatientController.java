@@ -7,6 +7,7 @@ import com.lab.exception.ErrorResponse;
 import com.lab.service.impl.PatientServiceImpl;
 import com.lab.util.PaginationUtil;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -16,6 +17,7 @@ import jakarta.validation.Valid;
 import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
@@ -41,7 +43,7 @@ public class PatientController {
     @SuppressWarnings("unused")
     @Operation(
             summary = "Получить всех пациентов",
-            description = "Возвращает список всех пациентов. Реализована пагинация.",
+            description = "Возвращает список всех пациентов. Реализована пагинация (offset или keyset по параметру after).",
             security = { @SecurityRequirement(name = "bearerAuth") }
     )
     @ApiResponse(
@@ -54,6 +56,11 @@ public class PatientController {
             description = "Пациенты не найдены",
             content = @Content(schema = @Schema(implementation = ErrorResponse.class))
     )
+    @ApiResponse(
+            responseCode = "400",
+            description = "Некорректный курсор или sort вместе с after",
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+    )
     @ApiResponse(
             responseCode = "401",
             description = "Требуется авторизация. Необходим токен.",
@@ -62,8 +69,21 @@ public class PatientController {
     public ResponseEntity<List<PatientResponseDTO>> getAllPatients(
             @ParameterObject
             @PageableDefault(size = 50)
-            Pageable pageable
+            Pageable pageable,
+            @Parameter(description = "Курсор для keyset-пагинации. Пустое значение - первая страница. Несовместим с sort")
+            @RequestParam(required = false) String after,
+            @Parameter(description = "Вернуть общее количество в X-Total-Count (только для keyset-пагинации)")
+            @RequestParam(defaultValue = "false") boolean count
     ) {
+        if (after != null) {
+            Slice<PatientResponseDTO> slice = patientServiceImpl.getPatientsAfter(
+                    PaginationUtil.decodeCursor(after, pageable), pageable.getPageSize());
+            Long totalCount = count ? patientServiceImpl.countPatients() : null;
+            HttpHeaders headers = PaginationUtil.generateCursorHttpHeaders(
+                    slice, PatientResponseDTO::getId, totalCount, "/api/v1/patients");
+            return new ResponseEntity<>(slice.getContent(), headers, HttpStatus.OK);
+        }
+
         Page<PatientResponseDTO> patients = patientServiceImpl.getAllPatients(pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(patients, "/api/v1/patients");
         return new ResponseEntity<>(patients.getContent(), headers, HttpStatus.OK);
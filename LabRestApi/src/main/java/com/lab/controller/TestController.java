@@ -1,11 +1,15 @@
 package com.lab.controller;
 
 import com.lab.dto.request.TestRequestDTO;
+import com.lab.dto.request.TestResultRequestDTO;
+import com.lab.dto.response.TestBatchItemDTO;
 import com.lab.dto.response.TestResponseDTO;
 import com.lab.exception.ErrorResponse;
+import com.lab.pdf.TestReport;
 import com.lab.service.impl.TestServiceImpl;
 import com.lab.util.PaginationUtil;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -15,12 +19,24 @@ import jakarta.validation.Valid;
 import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.*;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/v1/tests")
@@ -37,7 +53,7 @@ public class TestController {
     @GetMapping
     @Operation(
             summary = "Получить все лаб. исследования",
-            description = "Возвращает список всех лаб. исследований. Реализована пагинация",
+            description = "Возвращает список всех лаб. исследований. Реализована пагинация (offset или keyset по параметру after)",
             security = { @SecurityRequirement(name = "bearerAuth") }
     )
     @ApiResponse(
@@ -50,6 +66,11 @@ public class TestController {
             description = "Лаб. исследования не найдены",
             content = @Content(schema = @Schema(implementation = ErrorResponse.class))
     )
+    @ApiResponse(
+            responseCode = "400",
+            description = "Некорректный курсор или sort вместе с after",
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+    )
     @ApiResponse(
             responseCode = "401",
             description = "Требуется авторизация. Необходим токен.",
@@ -58,14 +79,55 @@ public class TestController {
     public ResponseEntity<List<TestResponseDTO>> getAllTests(
             @ParameterObject
             @PageableDefault(size = 50)
-            Pageable pageable
+            Pageable pageable,
+            @Parameter(description = "Курсор для keyset-пагинации. Пустое значение - первая страница. Несовместим с sort")
+            @RequestParam(required = false) String after,
+            @Parameter(description = "Вернуть общее количество в X-Total-Count (только для keyset-пагинации)")
+            @RequestParam(defaultValue = "false") boolean count
     ) {
+        if (after != null) {
+            Slice<TestResponseDTO> slice = testServiceImpl.getTestsAfter(
+                    PaginationUtil.decodeCursor(after, pageable), pageable.getPageSize());
+            Long totalCount = count ? testServiceImpl.countTests() : null;
+            HttpHeaders headers = PaginationUtil.generateCursorHttpHeaders(
+                    slice, TestResponseDTO::getId, totalCount, "/api/v1/tests");
+            return new ResponseEntity<>(slice.getContent(), headers, HttpStatus.OK);
+        }
+
         Page<TestResponseDTO> tests = testServiceImpl.getAllTests(pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(tests, "/api/v1/tests");
         return new ResponseEntity<>(tests.getContent(), headers, HttpStatus.OK);
     }
 
 
+    @GetMapping("/critical")
+    @Operation(
+            summary = "Получить критические результаты",
+            description = "Возвращает лаб. исследования с результатом за критическими границами, " +
+                    "выполненные начиная с указанного момента (по умолчанию - за последний час), новые первыми",
+            security = { @SecurityRequirement(name = "bearerAuth") }
+    )
+    @ApiResponse(
+            responseCode = "200",
+            description = "Список критических результатов получен",
+            content = @Content(schema = @Schema(implementation = TestResponseDTO.class))
+    )
+    @ApiResponse(
+            responseCode = "401",
+            description = "Требуется авторизация. Необходим токен.",
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+    )
+    public ResponseEntity<List<TestResponseDTO>> getCriticalTests(
+            @Parameter(description = "Начало интервала", example = "2025-03-01T10:00:00")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since,
+            @Parameter(description = "Максимальное количество записей (1-5000)")
+            @RequestParam(defaultValue = "500") int limit
+    ) {
+        LocalDateTime from = since != null ? since : LocalDateTime.now().minusHours(1);
+        return ResponseEntity.ok(testServiceImpl.getCriticalTests(from, Math.min(Math.max(limit, 1), 5000)));
+    }
+
+
     @GetMapping("/{id}")
     @Operation(
             summary = "Получить лаб. исследования по ID",
@@ -104,12 +166,64 @@ public class TestController {
             description = "Некорректные данные лаб. исследования",
             content = @Content(schema = @Schema(implementation = ErrorResponse.class))
     )
+    @ApiResponse(
+            responseCode = "409",
+            description = "Заявка завершена, добавление незавершенного исследования недопустимо",
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+    )
     public ResponseEntity<TestResponseDTO> createTest(@Valid @RequestBody TestRequestDTO testDTO) {
         TestResponseDTO createdTest = testServiceImpl.createTest(testDTO);
         return ResponseEntity.status(HttpStatus.CREATED).body(createdTest);
     }
 
 
+    @PostMapping("/batch")
+    @Operation(
+            summary = "Пакетно создать лаб. исследования",
+            description = "Создает несколько лаб. исследований в одной транзакции. " +
+                    "Для каждого элемента возвращается результат в порядке запроса; " +
+                    "элементы с ошибками пропускаются, остальные сохраняются",
+            security = { @SecurityRequirement(name = "bearerAuth") }
+    )
+    @ApiResponse(
+            responseCode = "200",
+            description = "Пакет обработан",
+            content = @Content(schema = @Schema(implementation = TestBatchItemDTO.class))
+    )
+    @ApiResponse(
+            responseCode = "400",
+            description = "Некорректный формат запроса или слишком большой пакет",
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+    )
+    public ResponseEntity<List<TestBatchItemDTO>> createTests(@RequestBody List<TestRequestDTO> testDTOs) {
+        return ResponseEntity.ok(testServiceImpl.createTests(testDTOs));
+    }
+
+
+    @PutMapping("/results/batch")
+    @Operation(
+            summary = "Пакетно добавить результаты лаб. исследований",
+            description = "Добавляет результаты нескольких лаб. исследований в одной транзакции. " +
+                    "Для каждого элемента возвращается результат в порядке запроса",
+            security = { @SecurityRequirement(name = "bearerAuth") }
+    )
+    @ApiResponse(
+            responseCode = "200",
+            description = "Пакет обработан",
+            content = @Content(schema = @Schema(implementation = TestBatchItemDTO.class))
+    )
+    @ApiResponse(
+            responseCode = "400",
+            description = "Некорректный формат запроса или слишком большой пакет",
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+    )
+    public ResponseEntity<List<TestBatchItemDTO>> updateTestResults(
+            @RequestBody List<TestResultRequestDTO> resultDTOs
+    ) {
+        return ResponseEntity.ok(testServiceImpl.updateTestResults(resultDTOs));
+    }
+
+
     @PutMapping("/{id}")
     @Operation(
             summary = "Обновить лаб. исследование",
@@ -131,6 +245,11 @@ public class TestController {
             description = "Лаб. исследование не найдено",
             content = @Content(schema = @Schema(implementation = ErrorResponse.class))
     )
+    @ApiResponse(
+            responseCode = "409",
+            description = "Заявка завершена, добавление незавершенного исследования недопустимо",
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+    )
     public ResponseEntity<TestResponseDTO> updateTest(
             @PathVariable Long id,
             @Valid @RequestBody TestRequestDTO testDTO
@@ -193,16 +312,55 @@ public class TestController {
             description = "Ошибка генерации PDF",
             content = @Content(schema = @Schema(implementation = ErrorResponse.class))
     )
-    public ResponseEntity<byte[]> generatePdf(@PathVariable Long id) {
-        byte[] pdfBytes = testServiceImpl.generateTestPdf(id);
+    public ResponseEntity<?> generatePdf(@PathVariable Long id, WebRequest webRequest)
+            throws IOException {
+        // Данные загружаются до начала ответа, чтобы 404 вернулся обычным образом
+        TestReport report = testServiceImpl.getTestReport(id);
+        String etag = "\"" + testServiceImpl.getTestPdfVersion(report) + "\"";
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
 
         HttpHeaders headers = new HttpHeaders();
+        headers.setETag(etag);
         headers.setContentType(MediaType.APPLICATION_PDF);
         headers.setContentDisposition(ContentDisposition.builder("attachment")
                 .filename("test_" + id + ".pdf")
                 .build());
 
-        return new ResponseEntity<>(pdfBytes, headers, HttpStatus.OK);
+        Optional<FileChannel> cached = openCachedPdf(report);
+        if (cached.isPresent()) {
+            // Ответ пишется синхронно ResourceHttpMessageConverter, который закрывает поток
+            // и при обрыве соединения; размер берется из уже открытого канала
+            FileChannel channel = cached.get();
+            try {
+                headers.setContentLength(channel.size());
+            } catch (IOException e) {
+                channel.close();
+                throw e;
+            }
+            InputStreamResource resource = new InputStreamResource(Channels.newInputStream(channel));
+            return new ResponseEntity<>(resource, headers, HttpStatus.OK);
+        }
+
+        StreamingResponseBody body = out -> testServiceImpl.writeTestPdf(report, out);
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
+    }
+
+    /**
+     * Файл открывается сразу: если очистка кэша удалит его позже, открытый канал останется
+     * читаемым; если файл удален до открытия, PDF формируется заново
+     */
+    private Optional<FileChannel> openCachedPdf(TestReport report) {
+        Optional<Path> cached = testServiceImpl.getCachedTestPdf(report);
+        if (cached.isEmpty()) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(FileChannel.open(cached.get(), StandardOpenOption.READ));
+        } catch (IOException e) {
+            return Optional.empty();
+        }
     }
 
 }
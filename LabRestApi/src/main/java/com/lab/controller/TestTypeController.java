@@ -6,6 +6,7 @@ import com.lab.exception.ErrorResponse;
 import com.lab.service.impl.TestTypeServiceImpl;
 import com.lab.util.PaginationUtil;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -15,6 +16,7 @@ import jakarta.validation.Valid;
 import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -39,7 +41,7 @@ public class TestTypeController {
     @SuppressWarnings("unused")
     @Operation(
             summary = "Получить все типы лаб. исследований",
-            description = "Возвращает список всех типов лаб. исследований. Реализована пагинация",
+            description = "Возвращает список всех типов лаб. исследований. Реализована пагинация (offset или keyset по параметру after)",
             security = { @SecurityRequirement(name = "bearerAuth") }
     )
     @ApiResponse(
@@ -52,6 +54,11 @@ public class TestTypeController {
             description = "Типы лаб. исследования не найдены",
             content = @Content(schema = @Schema(implementation = ErrorResponse.class))
     )
+    @ApiResponse(
+            responseCode = "400",
+            description = "Некорректный курсор или sort вместе с after",
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+    )
     @ApiResponse(
             responseCode = "401",
             description = "Требуется авторизация. Необходим токен.",
@@ -60,8 +67,21 @@ public class TestTypeController {
     public ResponseEntity<List<TestTypeResponseDTO>> getAllTestTypes(
             @ParameterObject
             @PageableDefault(size = 50)
-            Pageable pageable
+            Pageable pageable,
+            @Parameter(description = "Курсор для keyset-пагинации. Пустое значение - первая страница. Несовместим с sort")
+            @RequestParam(required = false) String after,
+            @Parameter(description = "Вернуть общее количество в X-Total-Count (только для keyset-пагинации)")
+            @RequestParam(defaultValue = "false") boolean count
     ) {
+        if (after != null) {
+            Slice<TestTypeResponseDTO> slice = testTypeServiceImpl.getTestTypesAfter(
+                    PaginationUtil.decodeCursor(after, pageable), pageable.getPageSize());
+            Long totalCount = count ? testTypeServiceImpl.countTestTypes() : null;
+            HttpHeaders headers = PaginationUtil.generateCursorHttpHeaders(
+                    slice, TestTypeResponseDTO::getId, totalCount, "/api/v1/test-types");
+            return new ResponseEntity<>(slice.getContent(), headers, HttpStatus.OK);
+        }
+
         Page<TestTypeResponseDTO> testTypes = testTypeServiceImpl.getAllTestTypes(pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(testTypes, "/api/v1/test-types");
         return new ResponseEntity<>(testTypes.getContent(), headers, HttpStatus.OK);
@@ -0,0 +1,28 @@
+package com.lab.dto.request;
+
+import com.lab.entity.Status;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+import java.util.List;
+
+@Schema(description = "Запрос DTO для массового изменения статуса заявок")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderStatusUpdateRequestDTO {
+
+    @Schema(description = "ID заявок", example = "[1, 2, 3]")
+    @NotEmpty(message = "Необходим хотя бы один id")
+    @Size(max = 10_000, message = "За один запрос можно изменить не больше 10 000 заявок")
+    private List<@NotNull(message = "id не должен быть пустым") Long> ids;
+
+    @Schema(description = "Новый статус", example = "COMPLETED")
+    @NotNull(message = "Необходим статус")
+    private Status status;
+}
@@ -5,6 +5,8 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.*;
 import lombok.*;
 
+import java.math.BigDecimal;
+
 
 @Schema(description = "Запрос DTO для создания и обновления лабораторного исследования")
 @Getter
@@ -39,5 +41,9 @@ public class TestRequestDTO {
     @Schema(description = "Статус лабораторного исследования", example = "PENDING")
     @NotNull(message = "Необходим статус")
     private TestStatus status;
+
+    @Schema(description = "Числовой результат в единицах типа исследования", example = "5.2")
+    @Digits(integer = 12, fraction = 6, message = "numericValue: не больше 12 знаков до запятой и 6 после")
+    private BigDecimal numericValue;
 }
 
@@ -0,0 +1,26 @@
+package com.lab.dto.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.*;
+import lombok.*;
+
+
+@Schema(description = "Запрос DTO для добавления результата лабораторного исследования")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TestResultRequestDTO {
+
+    @Schema(description = "ID лабораторного исследования")
+    @NotNull(message = "Необходим testId")
+    @Min(value = 1, message = "testId должен быть не меньше 1")
+    @Max(value = 1_000_000, message = "testId должен быть не больше 1 000 000")
+    private Long testId;
+
+    @Schema(description = "Добавляемый результат", example = "Результат положительный")
+    @NotBlank(message = "Необходим результат")
+    @Size(max = 500, message = "Результат не может превышать 500 символов")
+    private String result;
+}
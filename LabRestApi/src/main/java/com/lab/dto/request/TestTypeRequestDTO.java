@@ -1,6 +1,8 @@
 package com.lab.dto.request;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.AssertTrue;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import lombok.*;
@@ -31,4 +33,37 @@ public class TestTypeRequestDTO {
     @Schema(description = "Цена", example = "10.54")
     @NotNull(message = "Необходима цена")
     private BigDecimal price;
+
+    @Schema(description = "Единица измерения числового результата", example = "ммоль/л")
+    @Size(max = 50, message = "Единица измерения не должна превышать 50 символов")
+    private String unit;
+
+    @Schema(description = "Нижняя граница нормы", example = "3.5")
+    private BigDecimal referenceLow;
+
+    @Schema(description = "Верхняя граница нормы", example = "5.5")
+    private BigDecimal referenceHigh;
+
+    @Schema(description = "Нижняя критическая граница", example = "2.2")
+    private BigDecimal criticalLow;
+
+    @Schema(description = "Верхняя критическая граница", example = "25.0")
+    private BigDecimal criticalHigh;
+
+    @JsonIgnore
+    @Schema(hidden = true)
+    @AssertTrue(message = "Границы должны идти по возрастанию: criticalLow <= referenceLow <= referenceHigh <= criticalHigh")
+    public boolean isRangeOrdered() {
+        BigDecimal previous = null;
+        for (BigDecimal bound : new BigDecimal[] { criticalLow, referenceLow, referenceHigh, criticalHigh }) {
+            if (bound == null) {
+                continue;
+            }
+            if (previous != null && previous.compareTo(bound) > 0) {
+                return false;
+            }
+            previous = bound;
+        }
+        return true;
+    }
 }
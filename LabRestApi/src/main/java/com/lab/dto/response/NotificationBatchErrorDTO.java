@@ -0,0 +1,19 @@
+package com.lab.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+
+@Schema(description = "Пропущенный элемент пакетного приема уведомлений")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class NotificationBatchErrorDTO {
+
+    @Schema(description = "Позиция элемента в запросе, начиная с 0")
+    private int index;
+
+    @Schema(description = "Причина пропуска", example = "orderId: must not be null")
+    private String error;
+}
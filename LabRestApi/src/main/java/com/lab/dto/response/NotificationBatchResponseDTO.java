@@ -0,0 +1,24 @@
+package com.lab.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+
+import java.util.List;
+
+@Schema(description = "Ответ DTO на пакетный прием уведомлений")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class NotificationBatchResponseDTO {
+
+    @Schema(description = "Количество сохраненных уведомлений", example = "98")
+    private int saved;
+
+    @Schema(description = "Количество пропущенных уведомлений, не прошедших валидацию", example = "2")
+    private int skipped;
+
+    @Schema(description = "Причины пропуска по позициям элементов (не больше первых 100)")
+    private List<NotificationBatchErrorDTO> errors;
+}
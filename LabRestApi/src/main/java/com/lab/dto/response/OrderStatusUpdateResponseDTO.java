@@ -0,0 +1,25 @@
+package com.lab.dto.response;
+
+import com.lab.entity.Status;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+
+import java.util.List;
+
+@Schema(description = "Ответ DTO на массовое изменение статуса заявок")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderStatusUpdateResponseDTO {
+
+    @Schema(description = "Новый статус", example = "COMPLETED")
+    private Status status;
+
+    @Schema(description = "ID заявок, переведенных в новый статус")
+    private List<Long> updatedIds;
+
+    @Schema(description = "ID заявок, которые не найдены или из текущего статуса которых переход недопустим")
+    private List<Long> skippedIds;
+}
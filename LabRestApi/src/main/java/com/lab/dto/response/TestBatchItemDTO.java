@@ -0,0 +1,33 @@
+package com.lab.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+
+@Schema(description = "Результат обработки одного элемента пакетного запроса")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TestBatchItemDTO {
+
+    @Schema(description = "Позиция элемента в запросе, начиная с 0")
+    private int index;
+
+    @Schema(description = "Элемент успешно обработан")
+    private boolean success;
+
+    @Schema(description = "Лабораторное исследование после обработки, если элемент обработан")
+    private TestResponseDTO test;
+
+    @Schema(description = "Причина ошибки, если элемент не обработан", example = "Заявки с id-5 не найдено")
+    private String error;
+
+    public static TestBatchItemDTO success(int index, TestResponseDTO test) {
+        return new TestBatchItemDTO(index, true, test, null);
+    }
+
+    public static TestBatchItemDTO failure(int index, String error) {
+        return new TestBatchItemDTO(index, false, null, error);
+    }
+}
@@ -1,9 +1,11 @@
 package com.lab.dto.response;
 
+import com.lab.entity.ResultFlag;
 import com.lab.entity.TestStatus;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.*;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Schema(description = "Ответ DTO для просмотра лабораторных исследований")
@@ -37,5 +39,14 @@ public class TestResponseDTO {
 
     @Schema(description = "Статус лабораторного исследования", example = "PENDING")
     private TestStatus status;
+
+    @Schema(description = "Числовой результат", example = "5.2")
+    private BigDecimal numericValue;
+
+    @Schema(description = "Единица измерения", example = "ммоль/л")
+    private String unit;
+
+    @Schema(description = "Оценка результата по границам нормы", example = "NORMAL")
+    private ResultFlag flag;
 }
 
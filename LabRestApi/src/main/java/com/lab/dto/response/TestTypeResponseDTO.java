@@ -27,4 +27,19 @@ public class TestTypeResponseDTO {
 
     @Schema(description = "Цена", example = "10.54")
     private BigDecimal price;
+
+    @Schema(description = "Единица измерения числового результата", example = "ммоль/л")
+    private String unit;
+
+    @Schema(description = "Нижняя граница нормы", example = "3.5")
+    private BigDecimal referenceLow;
+
+    @Schema(description = "Верхняя граница нормы", example = "5.5")
+    private BigDecimal referenceHigh;
+
+    @Schema(description = "Нижняя критическая граница", example = "2.2")
+    private BigDecimal criticalLow;
+
+    @Schema(description = "Верхняя критическая граница", example = "25.0")
+    private BigDecimal criticalHigh;
 }
@@ -0,0 +1,5 @@
+package com.lab.entity;
+
+public enum OutboxStatus {
+    PENDING, FAILED
+}
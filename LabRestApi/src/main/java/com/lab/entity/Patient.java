@@ -18,7 +18,8 @@ public class Patient {
 
     @Id
     @Column(name = "id")
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "patient_id_seq")
+    @SequenceGenerator(name = "patient_id_seq", sequenceName = "patient_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "last_name")
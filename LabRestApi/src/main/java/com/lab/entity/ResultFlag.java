@@ -0,0 +1,9 @@
+package com.lab.entity;
+
+public enum ResultFlag {
+    NORMAL, LOW, HIGH, CRITICAL_LOW, CRITICAL_HIGH;
+
+    public boolean isCritical() {
+        return this == CRITICAL_LOW || this == CRITICAL_HIGH;
+    }
+}
@@ -1,5 +1,36 @@
 package com.lab.entity;
 
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Статус заявки
+ * <p>
+ * Допустимые переходы: REGISTERED -> IN_PROGRESS, COMPLETED, CANCELED;
+ * IN_PROGRESS -> COMPLETED, CANCELED. COMPLETED и CANCELED - конечные статусы.
+ */
 public enum Status {
-    REGISTERED, IN_PROGRESS, COMPLETED, CANCELED
+    REGISTERED, IN_PROGRESS, COMPLETED, CANCELED;
+
+    private static final Map<Status, EnumSet<Status>> SOURCES = new EnumMap<>(Status.class);
+
+    static {
+        SOURCES.put(REGISTERED, EnumSet.noneOf(Status.class));
+        SOURCES.put(IN_PROGRESS, EnumSet.of(REGISTERED));
+        SOURCES.put(COMPLETED, EnumSet.of(REGISTERED, IN_PROGRESS));
+        SOURCES.put(CANCELED, EnumSet.of(REGISTERED, IN_PROGRESS));
+    }
+
+    /**
+     * Статусы, из которых допустим переход в этот статус
+     */
+    public Set<Status> allowedSources() {
+        return EnumSet.copyOf(SOURCES.get(this));
+    }
+
+    public boolean canTransitionTo(Status target) {
+        return SOURCES.get(target).contains(this);
+    }
 }
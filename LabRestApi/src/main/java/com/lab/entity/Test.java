@@ -6,6 +6,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Data
@@ -19,14 +20,15 @@ public class Test {
     @Id
     @Column(name = "id")
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tests_id_seq")
-    @SequenceGenerator(name = "tests_id_seq", sequenceName = "tests_id_seq", allocationSize = 1)
+    @SequenceGenerator(name = "tests_id_seq", sequenceName = "tests_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
     @JoinColumn(name = "order_id")
     private Order order;
 
-    @ManyToOne
+    // Тип исследования читается из TestTypeCatalog, при загрузке Test join не нужен
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "test_type_id")
     private TestType testType;
 
@@ -43,4 +45,15 @@ public class Test {
     @Enumerated(EnumType.STRING)
     private TestStatus status;
 
+    @Column(name = "numeric_value")
+    private BigDecimal numericValue;
+
+    @Column(name = "unit")
+    private String unit;
+
+    // Вычисляется при записи по границам типа исследования
+    @Column(name = "flag")
+    @Enumerated(EnumType.STRING)
+    private ResultFlag flag;
+
 }
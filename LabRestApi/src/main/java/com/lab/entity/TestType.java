@@ -18,7 +18,8 @@ public class TestType {
 
     @Id
     @Column(name = "id")
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "test_types_id_seq")
+    @SequenceGenerator(name = "test_types_id_seq", sequenceName = "test_types_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "name")
@@ -32,4 +33,20 @@ public class TestType {
 
     @Column(name = "price")
     private BigDecimal price;
+
+    @Column(name = "unit")
+    private String unit;
+
+    // Границы нормы и критических значений; любая из границ может отсутствовать
+    @Column(name = "reference_low")
+    private BigDecimal referenceLow;
+
+    @Column(name = "reference_high")
+    private BigDecimal referenceHigh;
+
+    @Column(name = "critical_low")
+    private BigDecimal criticalLow;
+
+    @Column(name = "critical_high")
+    private BigDecimal criticalHigh;
 }
@@ -0,0 +1,7 @@
+package com.lab.exception;
+
+public class InvalidTestResultException extends RuntimeException {
+    public InvalidTestResultException(String message) {
+        super(message);
+    }
+}
@@ -25,6 +25,9 @@ public class TestMapperImpl implements TestMapper {
                 .result(test.getResult())
                 .referenceValues(test.getReferenceValues())
                 .status(test.getStatus())
+                .numericValue(test.getNumericValue())
+                .unit(test.getUnit())
+                .flag(test.getFlag())
                 .build();
     }
 
@@ -44,6 +47,8 @@ public class TestMapperImpl implements TestMapper {
                 .result(dto.getResult())
                 .referenceValues(dto.getReferenceValues())
                 .status(dto.getStatus())
+                .numericValue(dto.getNumericValue())
+                .unit(dto.getNumericValue() != null ? testType.getUnit() : null)
                 .build();
     }
 }
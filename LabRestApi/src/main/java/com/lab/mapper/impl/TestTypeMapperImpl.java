@@ -20,6 +20,11 @@ public class TestTypeMapperImpl implements TestTypeMapper {
                 .code(testType.getCode())
                 .description(testType.getDescription())
                 .price(testType.getPrice())
+                .unit(testType.getUnit())
+                .referenceLow(testType.getReferenceLow())
+                .referenceHigh(testType.getReferenceHigh())
+                .criticalLow(testType.getCriticalLow())
+                .criticalHigh(testType.getCriticalHigh())
                 .build();
     }
 
@@ -37,6 +42,11 @@ public class TestTypeMapperImpl implements TestTypeMapper {
                 .code(dto.getCode())
                 .description(dto.getDescription())
                 .price(dto.getPrice())
+                .unit(dto.getUnit())
+                .referenceLow(dto.getReferenceLow())
+                .referenceHigh(dto.getReferenceHigh())
+                .criticalLow(dto.getCriticalLow())
+                .criticalHigh(dto.getCriticalHigh())
                 .build();
     }
 }
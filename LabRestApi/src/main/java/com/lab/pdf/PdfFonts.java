@@ -0,0 +1,65 @@
+package com.lab.pdf;
+
+import com.lab.exception.PDFCreationErrorException;
+import com.lowagie.text.Font;
+import com.lowagie.text.pdf.BaseFont;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Шрифты для PDF-отчетов, загружаются из classpath один раз при старте
+ * <p>
+ * BaseFont только читается при выводе (набор использованных глифов хранит PdfWriter),
+ * поэтому экземпляры безопасно разделять между параллельно создаваемыми документами.
+ * Кодировка IDENTITY_H нужна для кириллицы, шрифты встраиваются в документ.
+ */
+@Component
+public class PdfFonts {
+
+    private static final String BOLD = "fonts/Roboto-Bold.ttf";
+    private static final String REGULAR = "fonts/Roboto_SemiCondensed-Regular.ttf";
+
+    private final Font title;
+    private final Font heading;
+    private final Font body;
+
+    public PdfFonts() {
+        BaseFont bold = load(BOLD);
+        BaseFont regular = load(REGULAR);
+        this.title = new Font(bold, 16, Font.BOLD);
+        this.heading = new Font(bold, 12, Font.BOLD);
+        this.body = new Font(regular, 11, Font.NORMAL);
+    }
+
+    /**
+     * Шрифт заголовка документа
+     */
+    public Font title() {
+        return title;
+    }
+
+    /**
+     * Шрифт заголовков разделов
+     */
+    public Font heading() {
+        return heading;
+    }
+
+    /**
+     * Шрифт основного текста
+     */
+    public Font body() {
+        return body;
+    }
+
+    private static BaseFont load(String path) {
+        try (InputStream in = new ClassPathResource(path).getInputStream()) {
+            return BaseFont.createFont(path, BaseFont.IDENTITY_H, BaseFont.EMBEDDED, true, in.readAllBytes(), null);
+        } catch (IOException e) {
+            throw new PDFCreationErrorException("Не удалось загрузить шрифт " + path);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.lab.pdf;
+
+import com.lab.exception.PDFCreationErrorException;
+import com.lowagie.text.Document;
+import com.lowagie.text.DocumentException;
+import com.lowagie.text.pdf.PdfCopy;
+import com.lowagie.text.pdf.PdfReader;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Сборка больших отчетов по заявкам из частей, отрисованных параллельно
+ * <p>
+ * Исследования делятся на части по orders-per-part заявок. Части рисуются в
+ * ограниченном пуле, результат копируется в выходной документ в исходном порядке
+ * по мере готовности. Одновременно в памяти не больше двух частей на поток пула.
+ */
+@Component
+public class PdfReportAssembler {
+
+    private final TestReportRenderer testReportRenderer;
+    private final ExecutorService executor;
+    private final int ordersPerPart;
+    private final int maxPartsInFlight;
+
+    public PdfReportAssembler(
+            TestReportRenderer testReportRenderer,
+            @Value("${report.pdf.threads:4}") int threads,
+            @Value("${report.pdf.orders-per-part:100}") int ordersPerPart
+    ) {
+        this.testReportRenderer = testReportRenderer;
+        this.ordersPerPart = ordersPerPart;
+        this.maxPartsInFlight = threads * 2;
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "pdf-render-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Отчет по заявкам в один документ
+     *
+     * @param reports исследования, упорядоченные по заявке
+     * @param out     поток вывода, не закрывается
+     */
+    public void render(List<TestReport> reports, OutputStream out) {
+        List<List<TestReport>> parts = split(reports);
+        if (parts.size() == 1) {
+            testReportRenderer.renderOrders(reports, out);
+            return;
+        }
+
+        Deque<Future<byte[]>> inFlight = new ArrayDeque<>();
+        Document document = new Document();
+        try {
+            PdfCopy copy = new PdfCopy(document, out);
+            copy.setCloseStream(false);
+            document.open();
+
+            for (List<TestReport> part : parts) {
+                if (inFlight.size() >= maxPartsInFlight) {
+                    append(copy, inFlight.poll().get());
+                }
+                inFlight.add(executor.submit(() -> renderPart(part)));
+            }
+            while (!inFlight.isEmpty()) {
+                append(copy, inFlight.poll().get());
+            }
+
+            document.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PDFCreationErrorException("Генерация PDF прервана");
+        } catch (ExecutionException | DocumentException | IOException e) {
+            throw new PDFCreationErrorException("Ошибка генерации PDF");
+        } finally {
+            inFlight.forEach(future -> future.cancel(true));
+        }
+    }
+
+    private byte[] renderPart(List<TestReport> part) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        testReportRenderer.renderOrders(part, out);
+        return out.toByteArray();
+    }
+
+    private static void append(PdfCopy copy, byte[] part) throws IOException {
+        PdfReader reader = new PdfReader(part);
+        try {
+            for (int page = 1; page <= reader.getNumberOfPages(); page++) {
+                copy.addPage(copy.getImportedPage(reader, page));
+            }
+            copy.freeReader(reader);
+        } finally {
+            reader.close();
+        }
+    }
+
+    private List<List<TestReport>> split(List<TestReport> reports) {
+        List<List<TestReport>> parts = new ArrayList<>();
+        int from = 0;
+        int orders = 0;
+        Long currentOrderId = null;
+        for (int i = 0; i < reports.size(); i++) {
+            Long orderId = reports.get(i).orderId();
+            if (!orderId.equals(currentOrderId)) {
+                if (orders == ordersPerPart) {
+                    parts.add(reports.subList(from, i));
+                    from = i;
+                    orders = 0;
+                }
+                currentOrderId = orderId;
+                orders++;
+            }
+        }
+        parts.add(reports.subList(from, reports.size()));
+        return parts;
+    }
+}
@@ -0,0 +1,233 @@
+package com.lab.pdf;
+
+import com.lab.exception.PDFCreationErrorException;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Дисковый кэш готовых PDF-отчетов по лаб. исследованиям
+ * <p>
+ * Файл называется {@code <id теста>-<версия>.pdf}, где версия - хеш всех полей отчета,
+ * поэтому любое изменение теста, заявки или пациента дает новый файл, а старый
+ * не будет отдан. Версия же используется как ETag.
+ * <p>
+ * Размер каталога ограничен max-size: при превышении удаляются файлы, к которым
+ * дольше всего не обращались (время изменения обновляется при каждом попадании).
+ * <p>
+ * Текущая версия и размер файла каждого теста хранятся в памяти: вытеснение удаляет
+ * один известный файл без чтения каталога, а общий размер меняется атомарно вместе
+ * с записью индекса, поэтому параллельные сохранения не искажают его.
+ */
+@Slf4j
+@Component
+public class PdfReportCache {
+
+    // Увеличивается при изменении макета отчета, чтобы не отдавать файлы старого вида
+    private static final String LAYOUT_VERSION = "1";
+    private static final String SUFFIX = ".pdf";
+
+    private final Path directory;
+    private final long maxBytes;
+    private final AtomicLong totalBytes = new AtomicLong();
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+
+    public PdfReportCache(
+            @Value("${report.pdf.cache.dir:${java.io.tmpdir}/lab-pdf-cache}") Path directory,
+            @Value("${report.pdf.cache.max-size:512MB}") DataSize maxSize
+    ) {
+        this.directory = directory;
+        this.maxBytes = maxSize.toBytes();
+    }
+
+    /**
+     * Построение индекса по файлам, оставшимся с прошлого запуска; лишние версии удаляются
+     */
+    @PostConstruct
+    void init() throws IOException {
+        Files.createDirectories(directory);
+        List<Path> files;
+        try (Stream<Path> list = Files.list(directory)) {
+            files = list.filter(file -> file.toString().endsWith(SUFFIX))
+                    .sorted(Comparator.comparing(PdfReportCache::lastModified))
+                    .toList();
+        }
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            int dash = name.indexOf('-');
+            Long testId = dash > 0 ? parseId(name.substring(0, dash)) : null;
+            if (testId == null) {
+                continue;
+            }
+            index(testId, new Entry(name.substring(dash + 1, name.length() - SUFFIX.length()), sizeOf(file)));
+        }
+    }
+
+    /**
+     * Версия содержимого отчета
+     */
+    public static String version(TestReport report) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest((LAYOUT_VERSION + "|" + report).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public Optional<Path> find(long testId, String version) {
+        Path file = file(testId, version);
+        if (!Files.exists(file)) {
+            return Optional.empty();
+        }
+        try {
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            // Файл мог быть удален параллельной очисткой
+            return Optional.empty();
+        }
+        return Optional.of(file);
+    }
+
+    /**
+     * Сохранение отчета: запись во временный файл и атомарная замена,
+     * поэтому читатели никогда не видят недописанный файл
+     *
+     * @param writer вывод PDF в поток
+     */
+    public Path store(long testId, String version, Consumer<OutputStream> writer) {
+        Path file = file(testId, version);
+        try {
+            Path temp = Files.createTempFile(directory, testId + "-", ".tmp");
+            try {
+                try (OutputStream out = Files.newOutputStream(temp)) {
+                    writer.accept(out);
+                }
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+            index(testId, new Entry(version, sizeOf(file)));
+            if (totalBytes.get() > maxBytes) {
+                trim();
+            }
+            return file;
+        } catch (IOException | UncheckedIOException e) {
+            throw new PDFCreationErrorException("Ошибка сохранения PDF в кэш");
+        }
+    }
+
+    /**
+     * Удаление отчета по тесту
+     */
+    public void evict(long testId) {
+        Entry entry = entries.remove(testId);
+        if (entry != null) {
+            totalBytes.addAndGet(-entry.size());
+            delete(file(testId, entry.version()));
+        }
+    }
+
+    /**
+     * Замена записи индекса; файл прежней версии удаляется. Размер повторно записанной
+     * той же версии вычитается и прибавляется заново, поэтому учитывается один раз.
+     */
+    private void index(long testId, Entry entry) {
+        entries.compute(testId, (id, previous) -> {
+            if (previous != null) {
+                totalBytes.addAndGet(-previous.size());
+                if (!previous.version().equals(entry.version())) {
+                    delete(file(testId, previous.version()));
+                }
+            }
+            totalBytes.addAndGet(entry.size());
+            return entry;
+        });
+    }
+
+    /**
+     * Удаление давно не запрашиваемых файлов до 90% лимита
+     */
+    private synchronized void trim() {
+        if (totalBytes.get() <= maxBytes) {
+            return;
+        }
+        List<Map.Entry<Long, Entry>> candidates = new ArrayList<>(entries.entrySet());
+        candidates.sort(Comparator.comparing(candidate ->
+                lastModified(file(candidate.getKey(), candidate.getValue().version()))));
+        long target = maxBytes / 10 * 9;
+        for (Map.Entry<Long, Entry> candidate : candidates) {
+            if (totalBytes.get() <= target) {
+                break;
+            }
+            // Запись могла быть заменена параллельным сохранением - тогда файл новый и остается
+            if (entries.remove(candidate.getKey(), candidate.getValue())) {
+                totalBytes.addAndGet(-candidate.getValue().size());
+                delete(file(candidate.getKey(), candidate.getValue().version()));
+            }
+        }
+    }
+
+    private void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Не удалось удалить {} из кэша PDF: {}", file, e.getMessage());
+        }
+    }
+
+    private Path file(long testId, String version) {
+        return directory.resolve(testId + "-" + version + SUFFIX);
+    }
+
+    private static Long parseId(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static long sizeOf(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static FileTime lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private record Entry(String version, long size) {
+    }
+}
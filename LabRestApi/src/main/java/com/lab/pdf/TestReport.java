@@ -0,0 +1,28 @@
+package com.lab.pdf;
+
+import com.lab.entity.Status;
+import com.lab.entity.TestStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Данные лаб. исследования для PDF-отчета
+ * <p>
+ * Собираются в потоке запроса, поэтому вывод документа не обращается к БД
+ * и может выполняться в другом потоке.
+ */
+public record TestReport(
+        Long testId,
+        Long orderId,
+        String patientLastName,
+        String patientFirstName,
+        LocalDateTime orderCreatedDate,
+        Status orderStatus,
+        String orderComment,
+        String testTypeName,
+        LocalDateTime executionDate,
+        String result,
+        String referenceValues,
+        TestStatus status
+) {
+}
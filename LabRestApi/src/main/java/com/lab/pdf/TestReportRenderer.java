@@ -0,0 +1,119 @@
+package com.lab.pdf;
+
+import com.lab.exception.PDFCreationErrorException;
+import com.lowagie.text.Chunk;
+import com.lowagie.text.Document;
+import com.lowagie.text.DocumentException;
+import com.lowagie.text.Element;
+import com.lowagie.text.Font;
+import com.lowagie.text.Paragraph;
+import com.lowagie.text.pdf.PdfWriter;
+import org.springframework.stereotype.Component;
+
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Вывод PDF-отчета по лаб. исследованию
+ * <p>
+ * Документ пишется прямо в переданный поток, целиком в памяти не собирается.
+ * Поток не закрывается: им владеет вызывающий код.
+ */
+@Component
+public class TestReportRenderer {
+
+    private final PdfFonts pdfFonts;
+
+    public TestReportRenderer(PdfFonts pdfFonts) {
+        this.pdfFonts = pdfFonts;
+    }
+
+    public void render(TestReport report, OutputStream out) {
+        Document document = new Document();
+        try {
+            PdfWriter writer = PdfWriter.getInstance(document, out);
+            writer.setCloseStream(false);
+            document.open();
+
+            Paragraph title = new Paragraph("Лабораторный тест #" + report.testId(), pdfFonts.title());
+            title.setAlignment(Element.ALIGN_CENTER);
+            document.add(title);
+            document.add(new Paragraph("\n", pdfFonts.body()));
+
+            addSection(document, report);
+
+            document.close();
+        } catch (DocumentException e) {
+            throw new PDFCreationErrorException("Ошибка генерации PDF");
+        }
+    }
+
+    /**
+     * Отчет по заявкам: каждая заявка с новой страницы, исследования заявки подряд
+     *
+     * @param reports исследования, упорядоченные по заявке
+     * @param out     поток вывода, не закрывается
+     */
+    public void renderOrders(List<TestReport> reports, OutputStream out) {
+        Document document = new Document();
+        try {
+            PdfWriter writer = PdfWriter.getInstance(document, out);
+            writer.setCloseStream(false);
+            document.open();
+
+            Long currentOrderId = null;
+            for (TestReport report : reports) {
+                if (!report.orderId().equals(currentOrderId)) {
+                    if (currentOrderId != null) {
+                        document.newPage();
+                    }
+                    currentOrderId = report.orderId();
+                    Paragraph title = new Paragraph("Заявка #" + report.orderId(), pdfFonts.title());
+                    title.setAlignment(Element.ALIGN_CENTER);
+                    document.add(title);
+                    addOrderInfo(document, report);
+                }
+                document.add(new Paragraph("Исследование #" + report.testId(), pdfFonts.heading()));
+                addTestInfo(document, report);
+            }
+
+            document.close();
+        } catch (DocumentException e) {
+            throw new PDFCreationErrorException("Ошибка генерации PDF");
+        }
+    }
+
+    private void addSection(Document document, TestReport report) {
+        document.add(new Paragraph("Тест ID: " + report.testId(), pdfFonts.body()));
+        addOrderInfo(document, report);
+        addTestInfo(document, report);
+    }
+
+    private void addOrderInfo(Document document, TestReport report) {
+        Font bodyFont = pdfFonts.body();
+
+        document.add(new Paragraph("Заявка:", bodyFont));
+        document.add(indented("ID: " + report.orderId(), bodyFont));
+        document.add(indented("Пациент: " + report.patientLastName() + " " + report.patientFirstName(), bodyFont));
+        document.add(indented("Дата создания: " + report.orderCreatedDate(), bodyFont));
+        document.add(indented("Статус заявки: " + report.orderStatus().name(), bodyFont));
+        document.add(indented("Комментарий: " + report.orderComment(), bodyFont));
+    }
+
+    private void addTestInfo(Document document, TestReport report) {
+        Font bodyFont = pdfFonts.body();
+
+        document.add(new Paragraph("Тип теста: " + report.testTypeName(), bodyFont));
+        document.add(new Paragraph("Дата выполнения: " + report.executionDate(), bodyFont));
+        document.add(new Paragraph("Результат: " + report.result(), bodyFont));
+        document.add(new Paragraph("Референсные значения: " + report.referenceValues(), bodyFont));
+        document.add(new Paragraph("Статус теста: " + report.status().name(), bodyFont));
+    }
+
+    private static Paragraph indented(String text, Font font) {
+        Paragraph paragraph = new Paragraph();
+        paragraph.add(new Chunk(text, font));
+        paragraph.setIndentationLeft(20);
+        return paragraph;
+    }
+}
@@ -0,0 +1,33 @@
+package com.lab.repository;
+
+import com.lab.entity.NotificationOutbox;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface NotificationOutboxRepository extends JpaRepository<NotificationOutbox, Long> {
+
+    /**
+     * Захват пачки уведомлений, готовых к отправке, с арендой до leaseUntil.
+     * <p>
+     * SKIP LOCKED позволяет нескольким экземплярам приложения разбирать outbox параллельно,
+     * не блокируя друг друга. Сдвиг next_attempt_at фиксируется коротким коммитом, после
+     * которого блокировки снимаются, а захваченные строки не выбираются повторно до
+     * окончания аренды. Запрос не помечен @Modifying, так как RETURNING возвращает строки.
+     */
+    @Query(value = "UPDATE notification_outbox SET next_attempt_at = :leaseUntil " +
+            "WHERE id IN (SELECT id FROM notification_outbox " +
+            "WHERE status = 'PENDING' AND next_attempt_at <= :now " +
+            "ORDER BY id " +
+            "LIMIT :limit " +
+            "FOR UPDATE SKIP LOCKED) " +
+            "RETURNING *", nativeQuery = true)
+    List<NotificationOutbox> claimBatchForDispatch(
+            @Param("now") LocalDateTime now,
+            @Param("leaseUntil") LocalDateTime leaseUntil,
+            @Param("limit") int limit
+    );
+}
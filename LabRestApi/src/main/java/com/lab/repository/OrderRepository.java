@@ -1,10 +1,115 @@
 package com.lab.repository;
 
+import com.lab.dto.response.OrderResponseDTO;
 import com.lab.entity.Order;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface OrderRepository extends JpaRepository<Order, Long> {
     List<Order> findByPatientId(Long patientId);
+
+    /**
+     * Заявка с блокировкой строки до конца транзакции: параллельная смена статуса
+     * (массовая или автоматическое завершение) ждет коммита и видит новый статус
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o WHERE o.id = :id")
+    Optional<Order> findForUpdateById(@Param("id") Long id);
+
+    /**
+     * Условный перевод статуса одним запросом: меняются только заявки в допустимых исходных статусах
+     * <p>
+     * Запрос не помечен @Modifying, так как RETURNING возвращает строки; выполняется в транзакции сервиса.
+     *
+     * @return id измененных заявок
+     */
+    @Query(value = "UPDATE orders SET status = :status WHERE id IN (:ids) AND status IN (:sources) RETURNING id",
+            nativeQuery = true)
+    List<Long> updateStatusReturningIds(
+            @Param("ids") Collection<Long> ids,
+            @Param("status") String status,
+            @Param("sources") Collection<String> sources
+    );
+
+    /*
+     * Счетчик pending_tests не отображается в сущности Order: сохранение сущности
+     * не должно перезаписывать значение, измененное параллельной транзакцией.
+     */
+
+    /**
+     * Изменение счетчика; увеличение для завершенной заявки не выполняется (0 строк)
+     */
+    @Modifying
+    @Query(value = "UPDATE orders SET pending_tests = pending_tests + :delta WHERE id = :orderId " +
+            "AND (:delta < 0 OR status IS DISTINCT FROM 'COMPLETED')", nativeQuery = true)
+    int addPendingTests(@Param("orderId") Long orderId, @Param("delta") int delta);
+
+    @Modifying
+    @Query(value = "UPDATE orders o SET pending_tests = (" +
+            "SELECT count(*) FROM tests t WHERE t.order_id = o.id " +
+            "AND (t.status IS NULL OR t.status <> 'COMPLETED')) " +
+            "WHERE o.id IN (:ids)", nativeQuery = true)
+    int recountPendingTests(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Завершение заявок, у которых есть исследования и не осталось незавершенных
+     * <p>
+     * Исходные статусы совпадают с допустимыми для перехода в COMPLETED.
+     *
+     * @return id завершенных заявок
+     */
+    @Query(value = "UPDATE orders o SET status = 'COMPLETED' " +
+            "WHERE o.id IN (:ids) AND o.pending_tests = 0 AND o.status IN ('REGISTERED', 'IN_PROGRESS') " +
+            "AND EXISTS (SELECT 1 FROM tests t WHERE t.order_id = o.id) RETURNING o.id",
+            nativeQuery = true)
+    List<Long> completeOrdersWithoutPendingTests(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT o.id FROM Order o WHERE o.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT o.id FROM Order o WHERE o.id IN :ids AND o.status = com.lab.entity.Status.COMPLETED")
+    List<Long> findCompletedIds(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT o.id FROM Order o WHERE o.patient.id = :patientId")
+    List<Long> findIdsByPatientId(@Param("patientId") Long patientId);
+
+    @Modifying
+    @Query("DELETE FROM Order o WHERE o.patient.id = :patientId")
+    int deleteByPatientIdInBulk(@Param("patientId") Long patientId);
+
+    /**
+     * Страница заявок одним запросом: пациент не загружается, берется только patient_id
+     */
+    @Query(value = "SELECT new com.lab.dto.response.OrderResponseDTO(" +
+            "o.id, o.patient.id, o.createdDate, o.status, o.comment) " +
+            "FROM Order o",
+            countQuery = "SELECT count(o) FROM Order o")
+    Page<OrderResponseDTO> findAllProjected(Pageable pageable);
+
+    /**
+     * Одна строка по id в виде DTO - используется для фонового обновления кэша
+     */
+    @Query("SELECT new com.lab.dto.response.OrderResponseDTO(" +
+            "o.id, o.patient.id, o.createdDate, o.status, o.comment) " +
+            "FROM Order o WHERE o.id = :id")
+    Optional<OrderResponseDTO> findProjectedById(@Param("id") Long id);
+
+    /**
+     * Keyset-страница: строки с id больше курсора, без подсчета общего количества
+     */
+    @Query("SELECT new com.lab.dto.response.OrderResponseDTO(" +
+            "o.id, o.patient.id, o.createdDate, o.status, o.comment) " +
+            "FROM Order o WHERE o.id > :afterId ORDER BY o.id")
+    Slice<OrderResponseDTO> findAllProjectedAfter(@Param("afterId") Long afterId, Pageable pageable);
 }
@@ -1,10 +1,17 @@
 package com.lab.repository;
 
+import com.lab.dto.response.PatientResponseDTO;
 import com.lab.entity.Patient;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 
 
 public interface PatientRepository extends JpaRepository<Patient, Long> {
@@ -19,4 +26,29 @@ public interface PatientRepository extends JpaRepository<Patient, Long> {
             String middleName,
             LocalDate birthDate
     );
+
+    /**
+     * Страница пациентов без загрузки сущностей в контекст персистентности
+     */
+    @Query(value = "SELECT new com.lab.dto.response.PatientResponseDTO(" +
+            "p.id, p.lastName, p.firstName, p.middleName, p.birthDate, p.gender, p.phoneNumber, p.snils) " +
+            "FROM Patient p",
+            countQuery = "SELECT count(p) FROM Patient p")
+    Page<PatientResponseDTO> findAllProjected(Pageable pageable);
+
+    /**
+     * Одна строка по id в виде DTO - используется для фонового обновления кэша
+     */
+    @Query("SELECT new com.lab.dto.response.PatientResponseDTO(" +
+            "p.id, p.lastName, p.firstName, p.middleName, p.birthDate, p.gender, p.phoneNumber, p.snils) " +
+            "FROM Patient p WHERE p.id = :id")
+    Optional<PatientResponseDTO> findProjectedById(@Param("id") Long id);
+
+    /**
+     * Keyset-страница: строки с id больше курсора, без подсчета общего количества
+     */
+    @Query("SELECT new com.lab.dto.response.PatientResponseDTO(" +
+            "p.id, p.lastName, p.firstName, p.middleName, p.birthDate, p.gender, p.phoneNumber, p.snils) " +
+            "FROM Patient p WHERE p.id > :afterId ORDER BY p.id")
+    Slice<PatientResponseDTO> findAllProjectedAfter(@Param("afterId") Long afterId, Pageable pageable);
 }
@@ -1,10 +1,136 @@
 package com.lab.repository;
 
+import com.lab.dto.response.TestResponseDTO;
 import com.lab.entity.Test;
+import com.lab.pdf.TestReport;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface TestRepository extends JpaRepository<Test, Long> {
+
+    /**
+     * Добавление результата через запятую, пустой результат заменяется.
+     * Конкатенация выполняется в БД, поэтому параллельные добавления не теряются.
+     */
+    String APPEND_RESULT_SQL = "UPDATE tests SET result = CASE WHEN result IS NULL OR result = '' " +
+            "THEN :result ELSE result || ', ' || :result END WHERE id = :id";
+
     List<Test> findByOrderId(Long orderId);
     List<Test> findAllByTestTypeId(Long testTypeId);
+
+    @Query("SELECT t.id FROM Test t WHERE t.order.id = :orderId")
+    List<Long> findIdsByOrderId(@Param("orderId") Long orderId);
+
+    @Query("SELECT DISTINCT t.order.id FROM Test t WHERE t.testType.id = :testTypeId")
+    List<Long> findOrderIdsByTestTypeId(@Param("testTypeId") Long testTypeId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM Test t WHERE t.id = :id")
+    Optional<Test> findForUpdateById(@Param("id") Long id);
+
+    @Query("SELECT t.id FROM Test t WHERE t.testType.id = :testTypeId")
+    List<Long> findIdsByTestTypeId(@Param("testTypeId") Long testTypeId);
+
+    @Query("SELECT t.id FROM Test t WHERE t.order.patient.id = :patientId")
+    List<Long> findIdsByPatientId(@Param("patientId") Long patientId);
+
+    @Query("SELECT t.id FROM Test t WHERE t.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query(value = APPEND_RESULT_SQL, nativeQuery = true)
+    int appendResult(@Param("id") Long id, @Param("result") String result);
+
+    @Modifying
+    @Query("DELETE FROM Test t WHERE t.order.id = :orderId")
+    int deleteByOrderIdInBulk(@Param("orderId") Long orderId);
+
+    @Modifying
+    @Query("DELETE FROM Test t WHERE t.testType.id = :testTypeId")
+    int deleteByTestTypeIdInBulk(@Param("testTypeId") Long testTypeId);
+
+    @Modifying
+    @Query("DELETE FROM Test t WHERE t.order.id IN (SELECT o.id FROM Order o WHERE o.patient.id = :patientId)")
+    int deleteByPatientIdInBulk(@Param("patientId") Long patientId);
+
+    /**
+     * Страница исследований одним запросом: связи не загружаются, берутся только внешние ключи
+     */
+    @Query(value = "SELECT new com.lab.dto.response.TestResponseDTO(" +
+            "t.id, t.order.id, t.testType.id, t.executionDate, t.result, t.referenceValues, t.status, " +
+            "t.numericValue, t.unit, t.flag) " +
+            "FROM Test t",
+            countQuery = "SELECT count(t) FROM Test t")
+    Page<TestResponseDTO> findAllProjected(Pageable pageable);
+
+    /**
+     * Одна строка по id в виде DTO - используется для фонового обновления кэша
+     */
+    @Query("SELECT new com.lab.dto.response.TestResponseDTO(" +
+            "t.id, t.order.id, t.testType.id, t.executionDate, t.result, t.referenceValues, t.status, " +
+            "t.numericValue, t.unit, t.flag) " +
+            "FROM Test t WHERE t.id = :id")
+    Optional<TestResponseDTO> findProjectedById(@Param("id") Long id);
+
+    @Query("SELECT new com.lab.dto.response.TestResponseDTO(" +
+            "t.id, t.order.id, t.testType.id, t.executionDate, t.result, t.referenceValues, t.status, " +
+            "t.numericValue, t.unit, t.flag) " +
+            "FROM Test t WHERE t.id IN :ids")
+    List<TestResponseDTO> findProjectedByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Keyset-страница: строки с id больше курсора, без подсчета общего количества
+     */
+    @Query("SELECT new com.lab.dto.response.TestResponseDTO(" +
+            "t.id, t.order.id, t.testType.id, t.executionDate, t.result, t.referenceValues, t.status, " +
+            "t.numericValue, t.unit, t.flag) " +
+            "FROM Test t WHERE t.id > :afterId ORDER BY t.id")
+    Slice<TestResponseDTO> findAllProjectedAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Критические результаты начиная с указанного момента, новые первыми
+     * <p>
+     * Условие по flag совпадает с условием частичного индекса idx_tests_critical_execution_date.
+     */
+    @Query("SELECT new com.lab.dto.response.TestResponseDTO(" +
+            "t.id, t.order.id, t.testType.id, t.executionDate, t.result, t.referenceValues, t.status, " +
+            "t.numericValue, t.unit, t.flag) " +
+            "FROM Test t WHERE t.flag IN (com.lab.entity.ResultFlag.CRITICAL_LOW, com.lab.entity.ResultFlag.CRITICAL_HIGH) " +
+            "AND t.executionDate >= :since ORDER BY t.executionDate DESC")
+    List<TestResponseDTO> findCriticalSince(@Param("since") LocalDateTime since, Pageable pageable);
+
+    /**
+     * Данные отчета по заявке одним запросом, без загрузки сущностей
+     */
+    @Query("SELECT new com.lab.pdf.TestReport(" +
+            "t.id, o.id, p.lastName, p.firstName, o.createdDate, o.status, o.comment, " +
+            "tt.name, t.executionDate, t.result, t.referenceValues, t.status) " +
+            "FROM Test t JOIN t.order o JOIN o.patient p JOIN t.testType tt " +
+            "WHERE o.id = :orderId ORDER BY t.id")
+    List<TestReport> findReportsByOrderId(@Param("orderId") Long orderId);
+
+    /**
+     * Данные отчета по всем заявкам, созданным в интервале [from, to)
+     */
+    @Query("SELECT new com.lab.pdf.TestReport(" +
+            "t.id, o.id, p.lastName, p.firstName, o.createdDate, o.status, o.comment, " +
+            "tt.name, t.executionDate, t.result, t.referenceValues, t.status) " +
+            "FROM Test t JOIN t.order o JOIN o.patient p JOIN t.testType tt " +
+            "WHERE o.createdDate >= :from AND o.createdDate < :to ORDER BY o.id, t.id")
+    List<TestReport> findReportsByOrderCreatedBetween(
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to
+    );
 }
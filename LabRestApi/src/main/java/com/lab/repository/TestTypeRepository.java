@@ -2,7 +2,6 @@ package com.lab.repository;
 
 import com.lab.entity.TestType;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.stereotype.Repository;
 
 public interface TestTypeRepository extends JpaRepository<TestType, Long> {
 
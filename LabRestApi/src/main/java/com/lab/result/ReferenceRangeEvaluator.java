@@ -0,0 +1,19 @@
+package com.lab.result;
+
+import com.lab.entity.ResultFlag;
+import com.lab.entity.TestType;
+
+import java.math.BigDecimal;
+
+/**
+ * Оценка числового результата по границам нормы и критических значений типа исследования
+ */
+public interface ReferenceRangeEvaluator {
+
+    /**
+     * @param testType тип исследования с границами
+     * @param value    числовой результат
+     * @return флаг результата, null если результата нет
+     */
+    ResultFlag evaluate(TestType testType, BigDecimal value);
+}
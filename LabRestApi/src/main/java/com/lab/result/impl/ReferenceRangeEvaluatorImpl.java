@@ -0,0 +1,46 @@
+package com.lab.result.impl;
+
+import com.lab.entity.ResultFlag;
+import com.lab.entity.TestType;
+import com.lab.result.ReferenceRangeEvaluator;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+
+/**
+ * Сравнение со значениями границ без промежуточных объектов
+ * <p>
+ * Критические границы проверяются первыми; значение на самой границе считается
+ * входящим в диапазон. Отсутствующая граница не ограничивает диапазон.
+ */
+@Component
+public class ReferenceRangeEvaluatorImpl implements ReferenceRangeEvaluator {
+
+    @Override
+    public ResultFlag evaluate(TestType testType, BigDecimal value) {
+        if (value == null) {
+            return null;
+        }
+        if (below(value, testType.getCriticalLow())) {
+            return ResultFlag.CRITICAL_LOW;
+        }
+        if (above(value, testType.getCriticalHigh())) {
+            return ResultFlag.CRITICAL_HIGH;
+        }
+        if (below(value, testType.getReferenceLow())) {
+            return ResultFlag.LOW;
+        }
+        if (above(value, testType.getReferenceHigh())) {
+            return ResultFlag.HIGH;
+        }
+        return ResultFlag.NORMAL;
+    }
+
+    private static boolean below(BigDecimal value, BigDecimal bound) {
+        return bound != null && value.compareTo(bound) < 0;
+    }
+
+    private static boolean above(BigDecimal value, BigDecimal bound) {
+        return bound != null && value.compareTo(bound) > 0;
+    }
+}
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.lab.exception.ErrorResponse;
 import com.lab.service.impl.JwtServiceImpl;
 import com.lab.service.impl.UserServiceImpl;
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.MalformedJwtException;
 import jakarta.servlet.FilterChain;
@@ -13,6 +14,7 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import net.logstash.logback.encoder.org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -34,6 +36,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private final UserServiceImpl userService;
     private final ObjectMapper objectMapper;
 
+    @Value("${token.stateless:false}")
+    private boolean statelessAuthentication;
+
     @Override
     protected void doFilterInternal(
             @NonNull HttpServletRequest request,
@@ -60,10 +65,12 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             var jwt = authHeader.substring(BEARER_PREFIX.length());
 
-            var username = jwtService.extractUserName(jwt);
+            var claims = jwtService.extractAllClaims(jwt);
+            JwtClaimsHolder.set(request, claims);
+            var username = claims.getSubject();
 
             if (SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = userService.userDetailsService().loadUserByUsername(username);
+                UserDetails userDetails = resolveUser(claims, username);
 
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                         userDetails,
@@ -85,6 +92,19 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
     }
 
+    /**
+     * В stateless-режиме пользователь строится из подписанных claims токена без запроса в БД,
+     * для токенов без нужных claims используется кэш пользователей. По умолчанию
+     * пользователь читается из БД на каждый запрос.
+     */
+    private UserDetails resolveUser(Claims claims, String username) {
+        if (statelessAuthentication) {
+            var user = jwtService.extractUser(claims);
+            return user.isPresent() ? user.get() : userService.getCachedByUsername(username);
+        }
+        return userService.userDetailsService().loadUserByUsername(username);
+    }
+
     private boolean isSecuredEndpoint(HttpServletRequest request) {
         return !request.getRequestURI().startsWith("/api/v1/auth/")
                 && !request.getRequestURI().startsWith("/swagger-ui/")
@@ -0,0 +1,28 @@
+package com.lab.security;
+
+import io.jsonwebtoken.Claims;
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.util.Optional;
+
+/**
+ * Хранение разобранных claims токена в атрибутах запроса
+ * <p>
+ * Токен проверяется один раз в {@link JwtAuthenticationFilter}, дальше по цепочке
+ * (например, в {@link com.lab.util.AuditInterceptor}) используются сохраненные claims.
+ */
+public final class JwtClaimsHolder {
+
+    private static final String CLAIMS_ATTRIBUTE = JwtClaimsHolder.class.getName() + ".claims";
+
+    private JwtClaimsHolder() {
+    }
+
+    public static void set(HttpServletRequest request, Claims claims) {
+        request.setAttribute(CLAIMS_ATTRIBUTE, claims);
+    }
+
+    public static Optional<Claims> get(HttpServletRequest request) {
+        return Optional.ofNullable((Claims) request.getAttribute(CLAIMS_ATTRIBUTE));
+    }
+}
@@ -1,11 +1,13 @@
 package com.lab.service;
 
+import com.lab.entity.User;
 import io.jsonwebtoken.Claims;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.security.Key;
 import java.util.Date;
 import java.util.Map;
+import java.util.Optional;
 import java.util.function.Function;
 
 public interface JwtService {
@@ -17,5 +19,6 @@ public interface JwtService {
     boolean isTokenExpired(String token);
     Date extractExpiration(String token);
     Claims extractAllClaims(String token);
+    Optional<User> extractUser(Claims claims);
     Key getSigningKey();
 }
@@ -1,7 +1,18 @@
 package com.lab.service;
 
 import com.lab.dto.request.NotificationRequestDTO;
+import com.lab.dto.response.NotificationBatchResponseDTO;
+import com.lab.entity.Status;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.List;
 
 public interface NotificationService {
     void notifyOrderStatusChanged(Long orderId, String message);
+    void notifyOrderStatusesChanged(Collection<Long> orderIds, Status status);
+    void dispatchPendingNotifications();
+    NotificationBatchResponseDTO saveNotifications(List<NotificationRequestDTO> requests);
+    NotificationBatchResponseDTO saveNotifications(InputStream ndjson) throws IOException;
 }
@@ -3,19 +3,28 @@ package com.lab.service;
 
 import com.lab.dto.request.OrderRequestDTO;
 import com.lab.dto.response.OrderResponseDTO;
+import com.lab.dto.response.OrderStatusUpdateResponseDTO;
 import com.lab.dto.response.TestResponseDTO;
 import com.lab.entity.Status;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public interface OrderService {
     Page<OrderResponseDTO> getAllOrders(Pageable pageable);
+    Slice<OrderResponseDTO> getOrdersAfter(long afterId, int size);
+    long countOrders();
     OrderResponseDTO createOrder(OrderRequestDTO orderRequestDTO);
     OrderResponseDTO updateOrderStatus(Long orderId, Status status);
+    OrderStatusUpdateResponseDTO updateOrderStatuses(Collection<Long> orderIds, Status status);
+    void applyPendingTestChanges(Map<Long, Integer> pendingDeltas);
+    void recountPendingTests(Collection<Long> orderIds);
     OrderResponseDTO getOrderById(Long id);
     List<OrderResponseDTO> getOrdersByPatientId(Long patientId);
     List<TestResponseDTO> getTestsByOrderId(Long orderId);
@@ -5,6 +5,7 @@ import com.lab.dto.response.OrderResponseDTO;
 import com.lab.dto.response.PatientResponseDTO;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
@@ -13,6 +14,8 @@ import java.util.List;
 @Service
 public interface PatientService {
     Page<PatientResponseDTO> getAllPatients(Pageable pageable);
+    Slice<PatientResponseDTO> getPatientsAfter(long afterId, int size);
+    long countPatients();
     PatientResponseDTO createPatient(PatientRequestDTO patientDTO);
     PatientResponseDTO updatePatient(Long id, PatientRequestDTO patientDTO);
     PatientResponseDTO getPatient(Long id);
@@ -0,0 +1,16 @@
+package com.lab.service;
+
+import com.lab.pdf.TestReport;
+import org.springframework.stereotype.Service;
+
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.List;
+
+@Service
+public interface ReportService {
+    List<TestReport> getOrderReport(Long orderId);
+    List<TestReport> getDailyReport(LocalDate date);
+
+    void writeReportPdf(List<TestReport> reports, OutputStream out);
+}
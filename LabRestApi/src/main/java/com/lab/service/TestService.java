@@ -1,20 +1,39 @@
 package com.lab.service;
 
 import com.lab.dto.request.TestRequestDTO;
+import com.lab.dto.request.TestResultRequestDTO;
+import com.lab.dto.response.TestBatchItemDTO;
 import com.lab.dto.response.TestResponseDTO;
+import com.lab.pdf.TestReport;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Service
 public interface TestService {
     Page<TestResponseDTO> getAllTests(Pageable pageable);
+    Slice<TestResponseDTO> getTestsAfter(long afterId, int size);
+    long countTests();
     TestResponseDTO getTestById(Long id);
     TestResponseDTO createTest(TestRequestDTO testDTO);
     TestResponseDTO updateTest(Long id, TestRequestDTO testDTO);
     TestResponseDTO updateTestResult(Long id, String newResult);
+    List<TestResponseDTO> getCriticalTests(LocalDateTime since, int limit);
+    List<TestBatchItemDTO> createTests(List<TestRequestDTO> testDTOs);
+    List<TestBatchItemDTO> updateTestResults(List<TestResultRequestDTO> resultDTOs);
 
-    byte[] generateTestPdf(Long id);
+    TestReport getTestReport(Long id);
+
+    void writeTestPdf(TestReport report, OutputStream out);
+
+    String getTestPdfVersion(TestReport report);
+
+    Optional<Path> getCachedTestPdf(TestReport report);
 }
@@ -4,6 +4,7 @@ import com.lab.dto.request.TestTypeRequestDTO;
 import com.lab.dto.response.TestTypeResponseDTO;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -11,6 +12,8 @@ import java.util.List;
 @Service
 public interface TestTypeService {
     Page<TestTypeResponseDTO> getAllTestTypes(Pageable pageable);
+    Slice<TestTypeResponseDTO> getTestTypesAfter(long afterId, int size);
+    long countTestTypes();
     TestTypeResponseDTO getTestTypeById(Long id);
     TestTypeResponseDTO createTestType(TestTypeRequestDTO testTypeDTO);
     TestTypeResponseDTO updateTestType(Long id, TestTypeRequestDTO testTypeDTO);
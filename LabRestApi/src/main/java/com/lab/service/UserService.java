@@ -7,6 +7,7 @@ public interface UserService {
     User save(User user);
     User create(User user);
     User getByUsername(String username);
+    User getCachedByUsername(String username);
     UserDetailsService userDetailsService();
     User getCurrentUser();
 }
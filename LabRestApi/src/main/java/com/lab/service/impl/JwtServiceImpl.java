@@ -1,10 +1,12 @@
 package com.lab.service.impl;
 
+import com.lab.entity.Role;
 import com.lab.entity.User;
 import com.lab.service.JwtService;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -15,6 +17,7 @@ import java.security.Key;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 import java.util.function.Function;
 
 @Slf4j
@@ -25,6 +28,19 @@ public class JwtServiceImpl implements JwtService {
     @Value("${token.signing.key}")
     private String jwtSigningKey;
 
+    private Key signingKey;
+    private JwtParser jwtParser;
+
+    /**
+     * Ключ и парсер создаются один раз: JwtParser неизменяем и потокобезопасен
+     */
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSigningKey));
+        jwtParser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+    }
 
     /**
      * Извлечение имени пользователя из токена
@@ -131,11 +147,30 @@ public class JwtServiceImpl implements JwtService {
      */
     @Override
     public Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return jwtParser.parseClaimsJws(token).getBody();
+    }
+
+    /**
+     * Построение пользователя из проверенных claims без обращения к БД
+     * <p>
+     * Для токенов без claims id/role (выпущенных до их добавления) возвращается пустой результат.
+     *
+     * @param claims данные токена
+     * @return пользователь
+     */
+    @Override
+    public Optional<User> extractUser(Claims claims) {
+        Number id = claims.get("id", Number.class);
+        String role = claims.get("role", String.class);
+        if (id == null || role == null) {
+            return Optional.empty();
+        }
+        return Optional.of(User.builder()
+                .id(id.longValue())
+                .username(claims.getSubject())
+                .email(claims.get("email", String.class))
+                .role(Role.valueOf(role))
+                .build());
     }
 
     /**
@@ -145,7 +180,6 @@ public class JwtServiceImpl implements JwtService {
      */
     @Override
     public Key getSigningKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(jwtSigningKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+        return signingKey;
     }
 }
@@ -1,29 +1,285 @@
 package com.lab.service.impl;
 
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.lab.dto.request.NotificationRequestDTO;
+import com.lab.dto.response.NotificationBatchErrorDTO;
+import com.lab.dto.response.NotificationBatchResponseDTO;
+import com.lab.entity.Notification;
+import com.lab.entity.NotificationOutbox;
+import com.lab.entity.OutboxStatus;
+import com.lab.entity.Status;
+import com.lab.mapper.impl.NotificationMapperImpl;
+import com.lab.repository.NotificationOutboxRepository;
+import com.lab.repository.NotificationRepository;
 import com.lab.service.NotificationService;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
 
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class NotificationServiceImpl implements NotificationService {
 
+    private static final int MAX_REPORTED_ERRORS = 100;
+
     private final RestTemplate restTemplate;
+    private final NotificationOutboxRepository notificationOutboxRepository;
+    private final NotificationRepository notificationRepository;
+    private final NotificationMapperImpl notificationMapper;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
 
     @Value("${notification.service.url}")
     private String notificationServiceUrl;
 
+    @Value("${notification.outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${notification.outbox.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${notification.outbox.initial-backoff:PT1S}")
+    private Duration initialBackoff;
+
+    @Value("${notification.outbox.max-backoff:PT10M}")
+    private Duration maxBackoff;
+
+    @Value("${notification.outbox.lease:PT15M}")
+    private Duration lease;
+
+    @Value("${notification.ingest.chunk-size:1000}")
+    private int ingestChunkSize;
+
+    /**
+     * Постановка уведомления в outbox
+     * <p>
+     * Запись выполняется в транзакции вызывающего метода, поэтому уведомление
+     * сохраняется атомарно вместе с изменением заявки. Отправка выполняется
+     * асинхронно в {@link #dispatchPendingNotifications()}.
+     *
+     * @param orderId id заявки
+     * @param message текст уведомления
+     */
     @Override
     public void notifyOrderStatusChanged(Long orderId, String message) {
-        NotificationRequestDTO requestDTO = NotificationRequestDTO.builder()
+        notificationOutboxRepository.save(toOutbox(orderId, message, LocalDateTime.now()));
+    }
+
+    /**
+     * Постановка в outbox уведомлений о массовой смене статуса
+     * <p>
+     * Записи сохраняются одним saveAll и уходят JDBC-пачками в транзакции вызывающего метода.
+     *
+     * @param orderIds id заявок
+     * @param status   новый статус
+     */
+    @Override
+    public void notifyOrderStatusesChanged(Collection<Long> orderIds, Status status) {
+        if (orderIds.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<NotificationOutbox> outboxes = new ArrayList<>(orderIds.size());
+        for (Long orderId : orderIds) {
+            outboxes.add(toOutbox(orderId, "Статус заявки " + orderId + " изменён на " + status, now));
+        }
+        notificationOutboxRepository.saveAll(outboxes);
+    }
+
+    private static NotificationOutbox toOutbox(Long orderId, String message, LocalDateTime now) {
+        return NotificationOutbox.builder()
                 .orderId(orderId)
                 .message(message)
+                .status(OutboxStatus.PENDING)
+                .attempts(0)
+                .createdAt(now)
+                .nextAttemptAt(now)
+                .build();
+    }
+
+    /**
+     * Отправка накопленных уведомлений пачками
+     * <p>
+     * Пачка захватывается с арендой в отдельной короткой транзакции, HTTP-запросы
+     * выполняются вне транзакции, без соединения с БД и блокировок строк. Итог
+     * фиксируется второй короткой транзакцией: успешно отправленные записи удаляются
+     * из outbox, для неудачных планируется повтор с экспоненциальной задержкой.
+     * После исчерпания попыток запись помечается как FAILED. Если узел остановится
+     * до фиксации итога, записи будут отправлены повторно после окончания аренды.
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${notification.outbox.dispatch-interval:PT1S}")
+    public void dispatchPendingNotifications() {
+        LocalDateTime now = LocalDateTime.now();
+        List<NotificationOutbox> batch = transactionTemplate.execute(status ->
+                notificationOutboxRepository.claimBatchForDispatch(now, now.plus(lease), batchSize));
+        if (batch == null || batch.isEmpty()) {
+            return;
+        }
+
+        List<NotificationOutbox> sent = new ArrayList<>();
+        List<NotificationOutbox> failed = new ArrayList<>();
+        for (NotificationOutbox outbox : batch) {
+            try {
+                send(outbox);
+                sent.add(outbox);
+            } catch (RestClientException e) {
+                scheduleRetry(outbox, e, now);
+                failed.add(outbox);
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            notificationOutboxRepository.deleteAllInBatch(sent);
+            notificationOutboxRepository.saveAll(failed);
+        });
+    }
+
+    /**
+     * Пакетное сохранение принятых уведомлений
+     * <p>
+     * Элементы, не прошедшие валидацию, пропускаются, остальные сохраняются.
+     * Причины пропуска возвращаются в ответе (не больше {@value #MAX_REPORTED_ERRORS}).
+     *
+     * @param requests уведомления
+     * @return количество сохраненных и пропущенных уведомлений
+     */
+    @Override
+    @Transactional
+    public NotificationBatchResponseDTO saveNotifications(List<NotificationRequestDTO> requests) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Notification> chunk = new ArrayList<>(Math.min(requests.size(), ingestChunkSize));
+        List<NotificationBatchErrorDTO> errors = new ArrayList<>();
+        int saved = 0;
+        for (int i = 0; i < requests.size(); i++) {
+            NotificationRequestDTO request = requests.get(i);
+            if (!isValid(i, request, errors)) {
+                continue;
+            }
+            chunk.add(toNotification(request, now));
+            saved++;
+            if (chunk.size() >= ingestChunkSize) {
+                persistChunk(chunk);
+            }
+        }
+        persistChunk(chunk);
+        return batchResponse(saved, requests.size() - saved, errors);
+    }
+
+    /**
+     * Потоковое сохранение уведомлений в формате NDJSON (один JSON-объект на строку)
+     * <p>
+     * Поток читается по одному объекту, в памяти одновременно держится не больше одного чанка.
+     *
+     * @param ndjson тело запроса
+     * @return количество сохраненных и пропущенных уведомлений
+     */
+    @Override
+    @Transactional
+    public NotificationBatchResponseDTO saveNotifications(InputStream ndjson) throws IOException {
+        LocalDateTime now = LocalDateTime.now();
+        List<Notification> chunk = new ArrayList<>(ingestChunkSize);
+        List<NotificationBatchErrorDTO> errors = new ArrayList<>();
+        int index = 0;
+        int saved = 0;
+        try (MappingIterator<NotificationRequestDTO> iterator = objectMapper
+                .readerFor(NotificationRequestDTO.class)
+                .readValues(ndjson)) {
+            while (iterator.hasNextValue()) {
+                NotificationRequestDTO request = iterator.nextValue();
+                if (!isValid(index++, request, errors)) {
+                    continue;
+                }
+                chunk.add(toNotification(request, now));
+                saved++;
+                if (chunk.size() >= ingestChunkSize) {
+                    persistChunk(chunk);
+                }
+            }
+        }
+        persistChunk(chunk);
+        return batchResponse(saved, index - saved, errors);
+    }
+
+    private boolean isValid(int index, NotificationRequestDTO request, List<NotificationBatchErrorDTO> errors) {
+        String error = request == null ? "пустой элемент" : validationError(request);
+        if (error == null) {
+            return true;
+        }
+        log.warn("Уведомление {} пропущено: {}", index, error);
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add(new NotificationBatchErrorDTO(index, error));
+        }
+        return false;
+    }
+
+    private NotificationBatchResponseDTO batchResponse(int saved, int skipped, List<NotificationBatchErrorDTO> errors) {
+        return NotificationBatchResponseDTO.builder()
+                .saved(saved)
+                .skipped(skipped)
+                .errors(errors)
+                .build();
+    }
+
+    private String validationError(NotificationRequestDTO request) {
+        Set<ConstraintViolation<NotificationRequestDTO>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private Notification toNotification(NotificationRequestDTO request, LocalDateTime timestamp) {
+        Notification notification = notificationMapper.toEntity(request);
+        notification.setTimestamp(timestamp);
+        return notification;
+    }
+
+    /**
+     * Вставки уходят JDBC-пачками (hibernate.jdbc.batch_size), после чего контекст
+     * персистентности очищается, чтобы не накапливать сущности при больших потоках.
+     */
+    private void persistChunk(List<Notification> chunk) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        notificationRepository.saveAll(chunk);
+        entityManager.flush();
+        entityManager.clear();
+        chunk.clear();
+    }
+
+    private void send(NotificationOutbox outbox) {
+        NotificationRequestDTO requestDTO = NotificationRequestDTO.builder()
+                .orderId(outbox.getOrderId())
+                .message(outbox.getMessage())
                 .build();
 
         restTemplate.postForEntity(
@@ -32,4 +288,25 @@ public class NotificationServiceImpl implements NotificationService {
                 Void.class
         );
     }
+
+    private void scheduleRetry(NotificationOutbox outbox, RestClientException e, LocalDateTime now) {
+        int attempts = outbox.getAttempts() + 1;
+        outbox.setAttempts(attempts);
+        outbox.setLastError(e.getMessage());
+
+        if (attempts >= maxAttempts) {
+            outbox.setStatus(OutboxStatus.FAILED);
+            log.error("Уведомление {} для заявки {} не отправлено после {} попыток: {}",
+                    outbox.getId(), outbox.getOrderId(), attempts, e.getMessage());
+        } else {
+            outbox.setNextAttemptAt(now.plus(backoff(attempts)));
+            log.warn("Ошибка отправки уведомления {} для заявки {} (попытка {}): {}",
+                    outbox.getId(), outbox.getOrderId(), attempts, e.getMessage());
+        }
+    }
+
+    private Duration backoff(int attempts) {
+        Duration delay = initialBackoff.multipliedBy(1L << Math.min(attempts - 1, 30));
+        return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+    }
 }
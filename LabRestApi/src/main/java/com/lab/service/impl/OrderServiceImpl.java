@@ -3,11 +3,13 @@ package com.lab.service.impl;
 import com.lab.cache.impl.CacheServiceImpl;
 import com.lab.dto.request.OrderRequestDTO;
 import com.lab.dto.response.OrderResponseDTO;
+import com.lab.dto.response.OrderStatusUpdateResponseDTO;
 import com.lab.dto.response.TestResponseDTO;
 import com.lab.entity.Order;
 import com.lab.entity.Patient;
 import com.lab.entity.Status;
 import com.lab.entity.Test;
+import com.lab.exception.InvalidStatusTransitionException;
 import com.lab.exception.OrderNotFoundException;
 import com.lab.exception.PatientNotFoundException;
 import com.lab.exception.TestNotFoundException;
@@ -23,8 +25,16 @@ import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.stereotype.Service;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 public class OrderServiceImpl implements OrderService {
@@ -57,20 +67,47 @@ public class OrderServiceImpl implements OrderService {
 
     @Override
     public Page<OrderResponseDTO> getAllOrders(Pageable pageable) {
-        Page<Order> ordersPage = orderRepository.findAll(pageable);
+        Page<OrderResponseDTO> ordersPage = orderRepository.findAllProjected(pageable);
 
         if (ordersPage.isEmpty()) {
             throw new OrderNotFoundException("Заявок не найдено");
         }
 
-        return ordersPage.map(orderMapperImpl::toResponseDTO);
+        return ordersPage;
     }
 
+    /**
+     * Keyset-пагинация: страница элементов с id больше курсора
+     *
+     * @param afterId id последнего элемента предыдущей страницы (0 - первая страница)
+     * @param size    размер страницы
+     */
     @Override
-    @Cacheable(value = "orders", key = "#id")
+    public Slice<OrderResponseDTO> getOrdersAfter(long afterId, int size) {
+        Slice<OrderResponseDTO> ordersSlice = orderRepository.findAllProjectedAfter(afterId, PageRequest.ofSize(size));
+
+        if (afterId == 0 && ordersSlice.isEmpty()) {
+            throw new OrderNotFoundException("Заявок не найдено");
+        }
+        return ordersSlice;
+    }
+
+    @Override
+    public long countOrders() {
+        return orderRepository.count();
+    }
+
+    @Override
+    @Cacheable(value = "orders", key = "#id", sync = true)
     public OrderResponseDTO getOrderById(Long id) {
+        if (cacheServiceImpl.isKnownMissing("orders", id)) {
+            throw new OrderNotFoundException("Заявки с id-" + id + " не найдено");
+        }
         Order order = orderRepository.findById(id)
-                .orElseThrow(() -> new OrderNotFoundException("Заявки с id-" + id + " не найдено"));
+                .orElseThrow(() -> {
+                    cacheServiceImpl.markMissing("orders", id);
+                    return new OrderNotFoundException("Заявки с id-" + id + " не найдено");
+                });
 
         return orderMapperImpl.toResponseDTO(order);
     }
@@ -84,15 +121,31 @@ public class OrderServiceImpl implements OrderService {
         Order order = orderMapperImpl.toEntity(orderRequestDTO, patient);
 
         order = orderRepository.save(order);
+        cacheServiceImpl.evictMissing("orders", order.getId());
 
         return orderMapperImpl.toResponseDTO(order);
     }
 
+    /**
+     * Перевод заявки в новый статус с проверкой допустимости перехода
+     * <p>
+     * Строка заявки блокируется на время проверки и сохранения, поэтому параллельная
+     * смена статуса не может быть перезаписана. Повторная установка текущего статуса
+     * ничего не меняет и не отправляет уведомление.
+     */
     @Override
+    @Transactional
     @CachePut(value = "orders", key = "#orderId")
     public OrderResponseDTO updateOrderStatus(Long orderId, Status status) {
-        Order order = orderRepository.findById(orderId)
+        Order order = orderRepository.findForUpdateById(orderId)
                 .orElseThrow(() -> new OrderNotFoundException("Заявок с id-" + orderId + " не найдено"));
+        if (order.getStatus() == status) {
+            return orderMapperImpl.toResponseDTO(order);
+        }
+        if (order.getStatus() == null || !order.getStatus().canTransitionTo(status)) {
+            throw new InvalidStatusTransitionException("Переход заявки с id-" + orderId + " из статуса "
+                    + order.getStatus() + " в статус " + status + " недопустим");
+        }
         cacheServiceImpl.evictOrderCaches(order);
         order.setStatus(status);
         order = orderRepository.save(order);
@@ -105,6 +158,93 @@ public class OrderServiceImpl implements OrderService {
         return orderMapperImpl.toResponseDTO(order);
     }
 
+    /**
+     * Массовый перевод заявок в новый статус
+     * <p>
+     * Выполняется одной командой UPDATE с условием по допустимым исходным статусам,
+     * поэтому проверка и изменение атомарны. Уведомления ставятся в outbox одной пачкой.
+     *
+     * @param orderIds id заявок
+     * @param status   новый статус
+     * @return измененные и пропущенные id
+     */
+    @Override
+    @Transactional
+    public OrderStatusUpdateResponseDTO updateOrderStatuses(Collection<Long> orderIds, Status status) {
+        Set<Status> sources = status.allowedSources();
+        if (sources.isEmpty()) {
+            throw new InvalidStatusTransitionException("Перевод заявок в статус " + status + " недопустим");
+        }
+        Set<Long> requested = new LinkedHashSet<>(orderIds);
+        List<Long> updated = orderRepository.updateStatusReturningIds(
+                requested,
+                status.name(),
+                sources.stream().map(Status::name).toList()
+        );
+
+        cacheServiceImpl.evictOrderCachesByIds(updated);
+        notificationServiceImpl.notifyOrderStatusesChanged(updated, status);
+
+        Set<Long> updatedIds = new HashSet<>(updated);
+        List<Long> skipped = requested.stream()
+                .filter(id -> !updatedIds.contains(id))
+                .toList();
+        return new OrderStatusUpdateResponseDTO(status, updated, skipped);
+    }
+
+    /**
+     * Изменение счетчиков незавершенных исследований заявок
+     * <p>
+     * Заявки, у которых счетчик уменьшился до нуля, автоматически переводятся в COMPLETED
+     * (если переход допустим) с вытеснением из кэша и уведомлением. При добавлении
+     * исследований завершение не проверяется: остальные исследования заявки могут быть
+     * еще не созданы. Добавление незавершенного исследования в завершенную заявку отклоняется.
+     *
+     * @param pendingDeltas изменение счетчика по id затронутой заявки
+     */
+    @Override
+    @Transactional
+    public void applyPendingTestChanges(Map<Long, Integer> pendingDeltas) {
+        List<Long> candidates = new ArrayList<>();
+        pendingDeltas.forEach((orderId, delta) -> {
+            if (delta != 0 && orderRepository.addPendingTests(orderId, delta) == 0 && delta > 0) {
+                throw new InvalidStatusTransitionException("Заявка с id-" + orderId
+                        + " завершена, добавление незавершенных исследований недопустимо");
+            }
+            if (delta < 0) {
+                candidates.add(orderId);
+            }
+        });
+        completeOrders(candidates);
+    }
+
+    /**
+     * Пересчет счетчиков по таблице исследований после массового удаления
+     * с автоматическим завершением заявок
+     *
+     * @param orderIds id затронутых заявок
+     */
+    @Override
+    @Transactional
+    public void recountPendingTests(Collection<Long> orderIds) {
+        if (orderIds.isEmpty()) {
+            return;
+        }
+        orderRepository.recountPendingTests(orderIds);
+        completeOrders(orderIds);
+    }
+
+    private void completeOrders(Collection<Long> orderIds) {
+        if (orderIds.isEmpty()) {
+            return;
+        }
+        List<Long> completed = orderRepository.completeOrdersWithoutPendingTests(orderIds);
+        if (!completed.isEmpty()) {
+            cacheServiceImpl.evictOrderCachesByIds(completed);
+            notificationServiceImpl.notifyOrderStatusesChanged(completed, Status.COMPLETED);
+        }
+    }
+
     @Override
     public List<OrderResponseDTO> getOrdersByPatientId(Long patientId) {
         if (!patientRepository.existsById(patientId)) {
@@ -138,9 +278,9 @@ public class OrderServiceImpl implements OrderService {
         Order order = orderRepository.findById(id)
                 .orElseThrow(() -> new OrderNotFoundException("Заявка с id-" + id + " не найдена"));
 
-        List<Test> tests = testRepository.findByOrderId(order.getId());
-        testRepository.deleteAll(tests);
-        tests.forEach(cacheServiceImpl::evictTestCaches);
+        List<Long> testIds = testRepository.findIdsByOrderId(order.getId());
+        testRepository.deleteByOrderIdInBulk(order.getId());
+        cacheServiceImpl.evictTestCachesByIds(testIds);
 
         cacheServiceImpl.evictOrderCaches(order);
 
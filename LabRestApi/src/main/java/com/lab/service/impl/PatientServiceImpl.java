@@ -6,7 +6,6 @@ import com.lab.dto.response.OrderResponseDTO;
 import com.lab.dto.response.PatientResponseDTO;
 import com.lab.entity.Order;
 import com.lab.entity.Patient;
-import com.lab.entity.Test;
 import com.lab.exception.OrderNotFoundException;
 import com.lab.exception.PatientNotFoundException;
 import com.lab.mapper.impl.OrderMapperImpl;
@@ -20,7 +19,9 @@ import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Page;
 
 import java.time.LocalDate;
@@ -54,23 +55,48 @@ public class PatientServiceImpl implements PatientService {
 
     @Override
     public Page<PatientResponseDTO> getAllPatients(Pageable pageable) {
-        Page<Patient> patientsPage = patientRepository.findAll(pageable);
+        Page<PatientResponseDTO> patientsPage = patientRepository.findAllProjected(pageable);
 
         if (patientsPage.isEmpty()) {
             throw new PatientNotFoundException("Пациентов не найдено");
         }
 
-        return patientsPage.map(patientMapperImpl::toResponseDTO);
+        return patientsPage;
     }
 
+    /**
+     * Keyset-пагинация: страница элементов с id больше курсора
+     *
+     * @param afterId id последнего элемента предыдущей страницы (0 - первая страница)
+     * @param size    размер страницы
+     */
     @Override
+    public Slice<PatientResponseDTO> getPatientsAfter(long afterId, int size) {
+        Slice<PatientResponseDTO> patientsSlice = patientRepository.findAllProjectedAfter(afterId, PageRequest.ofSize(size));
+
+        if (afterId == 0 && patientsSlice.isEmpty()) {
+            throw new PatientNotFoundException("Пациентов не найдено");
+        }
+        return patientsSlice;
+    }
+
+    @Override
+    public long countPatients() {
+        return patientRepository.count();
+    }
+
+    @Override
+    @Transactional
     public PatientResponseDTO createPatient(PatientRequestDTO patientDTO) {
         Patient patient = patientMapperImpl.toEntity(patientDTO);
         patient = patientRepository.save(patient);
+        cacheServiceImpl.evictPatientCaches(patient);
+        cacheServiceImpl.evictMissing("patients", patient.getId());
         return patientMapperImpl.toResponseDTO(patient);
     }
 
     @Override
+    @Transactional
     @CachePut(value = "patients", key = "#id")
     public PatientResponseDTO updatePatient(Long id, PatientRequestDTO patientDTO) {
         Patient patient = patientRepository.findById(id)
@@ -87,15 +113,23 @@ public class PatientServiceImpl implements PatientService {
         patient.setSnils(patientDTO.getSnils());
 
         patient = patientRepository.save(patient);
+        // Повторно - для новых ФИО и даты рождения; старые вытеснены выше
+        cacheServiceImpl.evictPatientCaches(patient);
 
         return patientMapperImpl.toResponseDTO(patient);
     }
 
     @Override
-    @Cacheable(value = "patients", key = "#id")
+    @Cacheable(value = "patients", key = "#id", sync = true)
     public PatientResponseDTO getPatient(Long id) {
+        if (cacheServiceImpl.isKnownMissing("patients", id)) {
+            throw new PatientNotFoundException("Пациентов с id-" + id + " не найдено");
+        }
         Patient patient = patientRepository.findById(id)
-                .orElseThrow(() -> new PatientNotFoundException("Пациентов с id-" + id + " не найдено"));
+                .orElseThrow(() -> {
+                    cacheServiceImpl.markMissing("patients", id);
+                    return new PatientNotFoundException("Пациентов с id-" + id + " не найдено");
+                });
         return patientMapperImpl.toResponseDTO(patient);
     }
 
@@ -109,7 +143,7 @@ public class PatientServiceImpl implements PatientService {
     }
 
     @Override
-    @Cacheable(value = "patientsByFio", key = "T(java.util.Objects).hash(#lastName, #firstName, #middleName)")
+    @Cacheable(value = "patientsByFio", key = "new com.lab.cache.PatientSearchKey(#lastName, #firstName, #middleName)", sync = true)
     public List<PatientResponseDTO> searchPatients(String lastName, String firstName, String middleName) {
         List<Patient> patients = patientRepository.findByLastNameAndFirstNameAndMiddleName(
                 lastName,
@@ -123,7 +157,7 @@ public class PatientServiceImpl implements PatientService {
     }
 
     @Override
-    @Cacheable(value = "patientsByBirthDate", key = "#birthDate")
+    @Cacheable(value = "patientsByBirthDate", key = "#birthDate", sync = true)
     public List<PatientResponseDTO> searchPatientsByBirthDate(LocalDate birthDate) {
         List<Patient> patients = patientRepository.findByBirthDate(birthDate);
         if (patients.isEmpty()) {
@@ -166,16 +200,14 @@ public class PatientServiceImpl implements PatientService {
         Patient patient = patientRepository.findById(id)
                 .orElseThrow(() -> new PatientNotFoundException("Пациентов с id-" + id + " не найдено"));
 
-        List<Order> orders = orderRepository.findByPatientId(patient.getId());
-        orders.forEach(order -> {
-            List<Test> tests = testRepository.findByOrderId(order.getId());
-            tests.forEach(test -> {
-                cacheServiceImpl.evictTestCaches(test);
-                testRepository.delete(test);
-            });
-            cacheServiceImpl.evictOrderCaches(order);
-            orderRepository.delete(order);
-        });
+        List<Long> orderIds = orderRepository.findIdsByPatientId(patient.getId());
+        List<Long> testIds = testRepository.findIdsByPatientId(patient.getId());
+
+        testRepository.deleteByPatientIdInBulk(patient.getId());
+        orderRepository.deleteByPatientIdInBulk(patient.getId());
+
+        cacheServiceImpl.evictTestCachesByIds(testIds);
+        cacheServiceImpl.evictOrderCachesByIds(orderIds);
 
         cacheServiceImpl.evictPatientCaches(patient);
         patientRepository.delete(patient);
@@ -0,0 +1,77 @@
+package com.lab.service.impl;
+
+import com.lab.exception.OrderNotFoundException;
+import com.lab.exception.TestNotFoundException;
+import com.lab.pdf.PdfReportAssembler;
+import com.lab.pdf.TestReport;
+import com.lab.repository.OrderRepository;
+import com.lab.repository.TestRepository;
+import com.lab.service.ReportService;
+import org.springframework.stereotype.Service;
+
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.List;
+
+@Service
+public class ReportServiceImpl implements ReportService {
+
+    private final TestRepository testRepository;
+    private final OrderRepository orderRepository;
+    private final PdfReportAssembler pdfReportAssembler;
+
+    public ReportServiceImpl(
+            TestRepository testRepository,
+            OrderRepository orderRepository,
+            PdfReportAssembler pdfReportAssembler
+    ) {
+        this.testRepository = testRepository;
+        this.orderRepository = orderRepository;
+        this.pdfReportAssembler = pdfReportAssembler;
+    }
+
+    /**
+     * Данные отчета по заявке: все исследования заявки одним запросом
+     *
+     * @param orderId id заявки
+     */
+    @Override
+    public List<TestReport> getOrderReport(Long orderId) {
+        List<TestReport> reports = testRepository.findReportsByOrderId(orderId);
+        if (reports.isEmpty()) {
+            if (!orderRepository.existsById(orderId)) {
+                throw new OrderNotFoundException("Заявка с id-" + orderId + " не найдена");
+            }
+            throw new TestNotFoundException("Тестов для заявки с id-" + orderId + " не найдено");
+        }
+        return reports;
+    }
+
+    /**
+     * Данные отчета по всем заявкам, созданным за день
+     *
+     * @param date день создания заявок
+     */
+    @Override
+    public List<TestReport> getDailyReport(LocalDate date) {
+        List<TestReport> reports = testRepository.findReportsByOrderCreatedBetween(
+                date.atStartOfDay(),
+                date.plusDays(1).atStartOfDay()
+        );
+        if (reports.isEmpty()) {
+            throw new OrderNotFoundException("Заявок с исследованиями за " + date + " не найдено");
+        }
+        return reports;
+    }
+
+    /**
+     * Потоковый вывод отчета; большие отчеты рисуются частями параллельно
+     *
+     * @param reports данные из {@link #getOrderReport(Long)} или {@link #getDailyReport(LocalDate)}
+     * @param out     поток ответа, не закрывается
+     */
+    @Override
+    public void writeReportPdf(List<TestReport> reports, OutputStream out) {
+        pdfReportAssembler.render(reports, out);
+    }
+}
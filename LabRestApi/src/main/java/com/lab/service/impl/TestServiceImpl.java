@@ -1,184 +1,467 @@
 package com.lab.service.impl;
 
+import com.lab.cache.TestTypeCatalog;
+import com.lab.cache.impl.CacheServiceImpl;
 import com.lab.dto.request.TestRequestDTO;
+import com.lab.dto.request.TestResultRequestDTO;
+import com.lab.dto.response.TestBatchItemDTO;
 import com.lab.dto.response.TestResponseDTO;
 import com.lab.entity.Order;
 import com.lab.entity.Test;
+import com.lab.entity.TestStatus;
 import com.lab.entity.TestType;
+import com.lab.exception.BatchTooLargeException;
+import com.lab.exception.InvalidTestResultException;
 import com.lab.exception.OrderNotFoundException;
-import com.lab.exception.PDFCreationErrorException;
 import com.lab.exception.TestNotFoundException;
 import com.lab.exception.TestTypeNotFoundException;
 import com.lab.mapper.impl.TestMapperImpl;
+import com.lab.pdf.PdfReportCache;
+import com.lab.pdf.TestReport;
+import com.lab.pdf.TestReportRenderer;
 import com.lab.repository.OrderRepository;
 import com.lab.repository.TestRepository;
-import com.lab.repository.TestTypeRepository;
+import com.lab.result.ReferenceRangeEvaluator;
 import com.lab.service.TestService;
-import com.lowagie.text.*;
-import com.lowagie.text.pdf.BaseFont;
-import com.lowagie.text.pdf.PdfWriter;
+import jakarta.transaction.Transactional;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Service;
 
-import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class TestServiceImpl implements TestService {
 
     private final TestRepository testRepository;
     private final OrderRepository orderRepository;
-    private final TestTypeRepository testTypeRepository;
+    private final TestTypeCatalog testTypeCatalog;
     private final TestMapperImpl testMapperImpl;
+    private final CacheServiceImpl cacheServiceImpl;
+    private final TestReportRenderer testReportRenderer;
+    private final PdfReportCache pdfReportCache;
+    private final Validator validator;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final ReferenceRangeEvaluator referenceRangeEvaluator;
+    private final OrderServiceImpl orderServiceImpl;
 
+    @Value("${test.batch.max-size:1000}")
+    private int maxBatchSize;
 
     public TestServiceImpl(
             TestRepository testRepository,
             OrderRepository orderRepository,
-            TestTypeRepository testTypeRepository,
-            TestMapperImpl testMapperImpl
+            TestTypeCatalog testTypeCatalog,
+            TestMapperImpl testMapperImpl,
+            CacheServiceImpl cacheServiceImpl,
+            TestReportRenderer testReportRenderer,
+            PdfReportCache pdfReportCache,
+            Validator validator,
+            NamedParameterJdbcTemplate jdbcTemplate,
+            ReferenceRangeEvaluator referenceRangeEvaluator,
+            OrderServiceImpl orderServiceImpl
     ) {
         this.testRepository = testRepository;
         this.orderRepository = orderRepository;
-        this.testTypeRepository = testTypeRepository;
+        this.testTypeCatalog = testTypeCatalog;
         this.testMapperImpl = testMapperImpl;
+        this.cacheServiceImpl = cacheServiceImpl;
+        this.testReportRenderer = testReportRenderer;
+        this.pdfReportCache = pdfReportCache;
+        this.validator = validator;
+        this.jdbcTemplate = jdbcTemplate;
+        this.referenceRangeEvaluator = referenceRangeEvaluator;
+        this.orderServiceImpl = orderServiceImpl;
     }
 
     @Override
     public Page<TestResponseDTO> getAllTests(Pageable pageable) {
-        Page<Test> testsPage = testRepository.findAll(pageable);
+        Page<TestResponseDTO> testsPage = testRepository.findAllProjected(pageable);
 
         if (testsPage.isEmpty()) {
             throw new TestNotFoundException("Лаб. исследований не найдено");
         }
 
-        return testsPage.map(testMapperImpl::toResponseDTO);
+        return testsPage;
     }
 
-    @Cacheable(value = "tests", key = "#id")
+    /**
+     * Keyset-пагинация: страница элементов с id больше курсора
+     *
+     * @param afterId id последнего элемента предыдущей страницы (0 - первая страница)
+     * @param size    размер страницы
+     */
+    @Override
+    public Slice<TestResponseDTO> getTestsAfter(long afterId, int size) {
+        Slice<TestResponseDTO> testsSlice = testRepository.findAllProjectedAfter(afterId, PageRequest.ofSize(size));
+
+        if (afterId == 0 && testsSlice.isEmpty()) {
+            throw new TestNotFoundException("Лаб. исследований не найдено");
+        }
+        return testsSlice;
+    }
+
+    @Override
+    public long countTests() {
+        return testRepository.count();
+    }
+
+    @Cacheable(value = "tests", key = "#id", sync = true)
     @Override
     public TestResponseDTO getTestById(Long id) {
+        if (cacheServiceImpl.isKnownMissing("tests", id)) {
+            throw new TestNotFoundException("Тест с id-" + id + " не найден");
+        }
         Test test = testRepository.findById(id)
-                .orElseThrow(() -> new TestNotFoundException("Тест с id-" + id + " не найден"));
+                .orElseThrow(() -> {
+                    cacheServiceImpl.markMissing("tests", id);
+                    return new TestNotFoundException("Тест с id-" + id + " не найден");
+                });
         return testMapperImpl.toResponseDTO(test);
     }
 
     @Override
+    @Transactional
     public TestResponseDTO createTest(TestRequestDTO testDTO) {
         Order order = orderRepository.findById(testDTO.getOrderId())
                 .orElseThrow(() -> new OrderNotFoundException("Заявки с id- "
                         + testDTO.getOrderId() + " не найдено"));
 
-        TestType testType = testTypeRepository.findById(testDTO.getTestTypeId())
+        TestType testType = testTypeCatalog.findById(testDTO.getTestTypeId())
                 .orElseThrow(() -> new TestTypeNotFoundException("Тип исследования с id- "
                         + testDTO.getTestTypeId() + " не найден"));
 
         Test test = testMapperImpl.toEntity(testDTO, order, testType);
+        test.setFlag(referenceRangeEvaluator.evaluate(testType, test.getNumericValue()));
 
         test = testRepository.save(test);
+        cacheServiceImpl.evictMissing("tests", test.getId());
+        if (isPending(test.getStatus())) {
+            orderServiceImpl.applyPendingTestChanges(Map.of(order.getId(), 1));
+        }
 
         return testMapperImpl.toResponseDTO(test);
     }
 
+    /**
+     * Обновление исследования; при завершении последнего незавершенного исследования
+     * заявка автоматически переводится в COMPLETED
+     * <p>
+     * Строка исследования блокируется до конца транзакции, чтобы параллельные
+     * обновления не изменили счетчик заявки дважды по одному переходу статуса.
+     */
     @Override
+    @Transactional
     @CachePut(value = "tests", key = "#id")
     public TestResponseDTO updateTest(Long id, TestRequestDTO testDTO) {
-        Test test = testRepository.findById(id)
+        Test test = testRepository.findForUpdateById(id)
                 .orElseThrow(() -> new TestNotFoundException("Тест с id-" + id + " не найден"));
+        cacheServiceImpl.evictTestCaches(test);
+        int pendingDelta = (isPending(testDTO.getStatus()) ? 1 : 0) - (isPending(test.getStatus()) ? 1 : 0);
 
         test.setExecutionDate(LocalDateTime.now());
         test.setResult(testDTO.getResult());
         test.setReferenceValues(testDTO.getReferenceValues());
         test.setStatus(testDTO.getStatus());
 
+        TestType testType = testTypeCatalog.findById(test.getTestType().getId())
+                .orElse(test.getTestType());
+        test.setNumericValue(testDTO.getNumericValue());
+        test.setUnit(testDTO.getNumericValue() != null ? testType.getUnit() : null);
+        test.setFlag(referenceRangeEvaluator.evaluate(testType, testDTO.getNumericValue()));
+
         test = testRepository.save(test);
+        if (pendingDelta != 0) {
+            orderServiceImpl.applyPendingTestChanges(Map.of(test.getOrder().getId(), pendingDelta));
+        }
         return testMapperImpl.toResponseDTO(test);
     }
 
+    /**
+     * Добавление результата одной командой UPDATE без предварительного чтения
+     * <p>
+     * Результат проверяется по тем же ограничениям, что и в пакетном запросе: в SQL
+     * конкатенация с NULL дает NULL и стерла бы накопленный результат.
+     * Кэш не заполняется ответом: при параллельных добавлениях ответ одного из
+     * запросов может не содержать результат другого.
+     */
     @Override
-    @CachePut(value = "tests", key = "#id")
+    @Transactional
     public TestResponseDTO updateTestResult(Long id, String newResult) {
-        Test test = testRepository.findById(id)
-                .orElseThrow(() -> new TestNotFoundException("Тест с id-" + id + " не найден"));
-
-        if (test.getResult() != null && !test.getResult().isEmpty()) {
-            test.setResult(test.getResult() + ", " + newResult);
-        } else {
-            test.setResult(newResult);
+        Set<ConstraintViolation<TestResultRequestDTO>> violations =
+                validator.validateProperty(new TestResultRequestDTO(id, newResult), "result");
+        if (!violations.isEmpty()) {
+            throw new InvalidTestResultException(violations.iterator().next().getMessage());
+        }
+        if (testRepository.appendResult(id, newResult) == 0) {
+            throw new TestNotFoundException("Тест с id-" + id + " не найден");
         }
+        cacheServiceImpl.evictTestCachesByIds(List.of(id));
 
-        test = testRepository.save(test);
-        return testMapperImpl.toResponseDTO(test);
+        return testRepository.findProjectedById(id)
+                .orElseThrow(() -> new TestNotFoundException("Тест с id-" + id + " не найден"));
     }
 
+    /**
+     * Критические результаты, полученные начиная с указанного момента
+     *
+     * @param since начало интервала
+     * @param limit максимальное количество записей
+     */
     @Override
-    public byte[] generateTestPdf(Long id) {
-        Test test = testRepository.findById(id)
-                .orElseThrow(() -> new TestNotFoundException("Тест с id-" + id + " не найден"));
-
-        ByteArrayOutputStream out = new ByteArrayOutputStream();
-        Document document = new Document();
+    public List<TestResponseDTO> getCriticalTests(LocalDateTime since, int limit) {
+        return testRepository.findCriticalSince(since, PageRequest.ofSize(limit));
+    }
 
-        try {
-            PdfWriter.getInstance(document, out);
-            document.open();
+    /**
+     * Пакетное создание лаб. исследований
+     * <p>
+     * Заявки проверяются одним IN-запросом, типы исследований берутся из справочника
+     * в памяти; вставки уходят JDBC-пачками в одной транзакции. Элементы с ошибками
+     * валидации, ссылками на несуществующие заявки и типы, а также незавершенные
+     * исследования для завершенных заявок пропускаются, для каждого элемента
+     * возвращается свой результат в порядке запроса.
+     *
+     * @param testDTOs исследования
+     * @return результат по каждому элементу
+     */
+    @Override
+    @Transactional
+    public List<TestBatchItemDTO> createTests(List<TestRequestDTO> testDTOs) {
+        checkBatchSize(testDTOs.size());
+
+        Set<Long> orderIds = testDTOs.stream()
+                .filter(Objects::nonNull)
+                .map(TestRequestDTO::getOrderId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Set<Long> existingOrderIds = orderIds.isEmpty()
+                ? Set.of()
+                : new HashSet<>(orderRepository.findExistingIds(orderIds));
+        Set<Long> completedOrderIds = existingOrderIds.isEmpty()
+                ? Set.of()
+                : new HashSet<>(orderRepository.findCompletedIds(existingOrderIds));
+
+        TestBatchItemDTO[] outcomes = new TestBatchItemDTO[testDTOs.size()];
+        List<Integer> indexes = new ArrayList<>(testDTOs.size());
+        List<Test> tests = new ArrayList<>(testDTOs.size());
+        for (int i = 0; i < testDTOs.size(); i++) {
+            TestRequestDTO testDTO = testDTOs.get(i);
+            String error = validationError(testDTO);
+            if (error == null && !existingOrderIds.contains(testDTO.getOrderId())) {
+                error = "Заявки с id-" + testDTO.getOrderId() + " не найдено";
+            }
+            if (error == null && isPending(testDTO.getStatus()) && completedOrderIds.contains(testDTO.getOrderId())) {
+                error = "Заявка с id-" + testDTO.getOrderId()
+                        + " завершена, добавление незавершенных исследований недопустимо";
+            }
+            Optional<TestType> testType = error == null
+                    ? testTypeCatalog.findById(testDTO.getTestTypeId())
+                    : Optional.empty();
+            if (error == null && testType.isEmpty()) {
+                error = "Тип исследования с id-" + testDTO.getTestTypeId() + " не найден";
+            }
+            if (error != null) {
+                outcomes[i] = TestBatchItemDTO.failure(i, error);
+                continue;
+            }
+            Order order = orderRepository.getReferenceById(testDTO.getOrderId());
+            Test test = testMapperImpl.toEntity(testDTO, order, testType.get());
+            test.setFlag(referenceRangeEvaluator.evaluate(testType.get(), test.getNumericValue()));
+            tests.add(test);
+            indexes.add(i);
+        }
 
+        List<Test> saved = testRepository.saveAll(tests);
+        Map<Long, Integer> pendingDeltas = new HashMap<>();
+        for (Test test : saved) {
+            if (isPending(test.getStatus())) {
+                pendingDeltas.merge(test.getOrder().getId(), 1, Integer::sum);
+            }
+        }
+        if (!pendingDeltas.isEmpty()) {
+            orderServiceImpl.applyPendingTestChanges(pendingDeltas);
+        }
+        for (int i = 0; i < saved.size(); i++) {
+            Test test = saved.get(i);
+            cacheServiceImpl.evictMissing("tests", test.getId());
+            outcomes[indexes.get(i)] = TestBatchItemDTO.success(indexes.get(i), testMapperImpl.toResponseDTO(test));
+        }
+        return Arrays.asList(outcomes);
+    }
 
-            String fontBoldPath = "src/main/resources/fonts/Roboto-Bold.ttf";
-            BaseFont baseBoldFont = BaseFont.createFont(fontBoldPath, BaseFont.IDENTITY_H, BaseFont.NOT_EMBEDDED);
-            Font robotoBoldFont = new Font(baseBoldFont, 16, Font.BOLD);
+    /**
+     * Пакетное добавление результатов лаб. исследований
+     * <p>
+     * Существование исследований проверяется одним IN-запросом, добавления уходят
+     * одной JDBC-пачкой атомарных UPDATE в порядке запроса, итоговые данные читаются
+     * одним запросом.
+     *
+     * @param resultDTOs результаты
+     * @return результат по каждому элементу
+     */
+    @Override
+    @Transactional
+    public List<TestBatchItemDTO> updateTestResults(List<TestResultRequestDTO> resultDTOs) {
+        checkBatchSize(resultDTOs.size());
+
+        Set<Long> testIds = resultDTOs.stream()
+                .filter(Objects::nonNull)
+                .map(TestResultRequestDTO::getTestId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Set<Long> existingTestIds = testIds.isEmpty()
+                ? Set.of()
+                : new HashSet<>(testRepository.findExistingIds(testIds));
+
+        String[] errors = new String[resultDTOs.size()];
+        List<MapSqlParameterSource> appends = new ArrayList<>(resultDTOs.size());
+        Set<Long> updatedIds = new LinkedHashSet<>();
+        for (int i = 0; i < resultDTOs.size(); i++) {
+            TestResultRequestDTO resultDTO = resultDTOs.get(i);
+            errors[i] = validationError(resultDTO);
+            if (errors[i] == null && !existingTestIds.contains(resultDTO.getTestId())) {
+                errors[i] = "Тест с id-" + resultDTO.getTestId() + " не найден";
+            }
+            if (errors[i] == null) {
+                appends.add(new MapSqlParameterSource()
+                        .addValue("id", resultDTO.getTestId())
+                        .addValue("result", resultDTO.getResult()));
+                updatedIds.add(resultDTO.getTestId());
+            }
+        }
+        if (appends.isEmpty()) {
+            return failures(errors);
+        }
 
-            String titleText = "Лабораторный тест #" + test.getId();
-            Paragraph title = new Paragraph(titleText, robotoBoldFont);
-            title.setAlignment(Element.ALIGN_CENTER);
-            document.add(title);
+        jdbcTemplate.batchUpdate(TestRepository.APPEND_RESULT_SQL, appends.toArray(new MapSqlParameterSource[0]));
+        cacheServiceImpl.evictTestCachesByIds(updatedIds);
 
-            document.add(new Paragraph("\n"));
+        Map<Long, TestResponseDTO> tests = testRepository.findProjectedByIdIn(updatedIds).stream()
+                .collect(Collectors.toMap(TestResponseDTO::getId, Function.identity()));
+        List<TestBatchItemDTO> outcomes = new ArrayList<>(resultDTOs.size());
+        for (int i = 0; i < resultDTOs.size(); i++) {
+            outcomes.add(errors[i] != null
+                    ? TestBatchItemDTO.failure(i, errors[i])
+                    : TestBatchItemDTO.success(i, tests.get(resultDTOs.get(i).getTestId())));
+        }
+        return outcomes;
+    }
 
-            document.add(new Paragraph("Тест ID: " + test.getId()));
+    private static List<TestBatchItemDTO> failures(String[] errors) {
+        List<TestBatchItemDTO> outcomes = new ArrayList<>(errors.length);
+        for (int i = 0; i < errors.length; i++) {
+            outcomes.add(TestBatchItemDTO.failure(i, errors[i]));
+        }
+        return outcomes;
+    }
 
-            document.add(new Paragraph("Заявка:"));
+    private static boolean isPending(TestStatus status) {
+        return status != TestStatus.COMPLETED;
+    }
 
-            Paragraph orderInfo = new Paragraph();
-            orderInfo.add(new Chunk("ID: " + test.getOrder().getId()));
-            orderInfo.setIndentationLeft(20);
-            document.add(orderInfo);
+    private void checkBatchSize(int size) {
+        if (size > maxBatchSize) {
+            throw new BatchTooLargeException("Размер пакета " + size + " превышает допустимый " + maxBatchSize);
+        }
+    }
 
-            Paragraph patientInfo = new Paragraph();
-            patientInfo.add(new Chunk("Пациент: " + test.getOrder().getPatient().getLastName() + " " +
-                    test.getOrder().getPatient().getFirstName()));
-            patientInfo.setIndentationLeft(20);
-            document.add(patientInfo);
+    private String validationError(Object dto) {
+        if (dto == null) {
+            return "пустой элемент";
+        }
+        Set<ConstraintViolation<Object>> violations = validator.validate(dto);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
 
-            Paragraph createdDateInfo = new Paragraph();
-            createdDateInfo.add(new Chunk("Дата создания: " + test.getOrder().getCreatedDate()));
-            createdDateInfo.setIndentationLeft(20);
-            document.add(createdDateInfo);
+    /**
+     * Данные для PDF-отчета; исключение "не найдено" возникает здесь, до начала вывода
+     */
+    @Override
+    public TestReport getTestReport(Long id) {
+        Test test = testRepository.findById(id)
+                .orElseThrow(() -> new TestNotFoundException("Тест с id-" + id + " не найден"));
 
-            Paragraph statusInfo = new Paragraph();
-            statusInfo.add(new Chunk("Статус заявки: " + test.getOrder().getStatus().name()));
-            statusInfo.setIndentationLeft(20);
-            document.add(statusInfo);
+        Order order = test.getOrder();
+        String testTypeName = testTypeCatalog.findById(test.getTestType().getId())
+                .map(TestType::getName)
+                .orElse("");
+        return new TestReport(
+                test.getId(),
+                order.getId(),
+                order.getPatient().getLastName(),
+                order.getPatient().getFirstName(),
+                order.getCreatedDate(),
+                order.getStatus(),
+                order.getComment(),
+                testTypeName,
+                test.getExecutionDate(),
+                test.getResult(),
+                test.getReferenceValues(),
+                test.getStatus()
+        );
+    }
 
-            Paragraph commentInfo = new Paragraph();
-            commentInfo.add(new Chunk("Комментарий: " + test.getOrder().getComment()));
-            commentInfo.setIndentationLeft(20);
-            document.add(commentInfo);
+    /**
+     * Потоковый вывод PDF-отчета
+     *
+     * @param report данные из {@link #getTestReport(Long)}
+     * @param out    поток ответа, не закрывается
+     */
+    @Override
+    public void writeTestPdf(TestReport report, OutputStream out) {
+        testReportRenderer.render(report, out);
+    }
 
-            document.add(new Paragraph("Тип теста: " + test.getTestType().getName()));
-            document.add(new Paragraph("Дата выполнения: " + test.getExecutionDate()));
-            document.add(new Paragraph("Результат: " + test.getResult()));
-            document.add(new Paragraph("Референсные значения: " + test.getReferenceValues()));
-            document.add(new Paragraph("Статус теста: " + test.getStatus().name()));
+    /**
+     * Версия содержимого отчета, используется как ETag
+     */
+    @Override
+    public String getTestPdfVersion(TestReport report) {
+        return PdfReportCache.version(report);
+    }
 
-            document.close();
-        } catch (Exception e) {
-            throw new PDFCreationErrorException("Ошибка генерации PDF");
+    /**
+     * Готовый PDF из дискового кэша; отчет по завершенному тесту рисуется и
+     * сохраняется при первом запросе. Незавершенные тесты не кэшируются.
+     */
+    @Override
+    public Optional<Path> getCachedTestPdf(TestReport report) {
+        if (report.status() != TestStatus.COMPLETED) {
+            return Optional.empty();
         }
-
-        return out.toByteArray();
+        String version = PdfReportCache.version(report);
+        return pdfReportCache.find(report.testId(), version)
+                .or(() -> Optional.of(pdfReportCache.store(report.testId(), version,
+                        out -> testReportRenderer.render(report, out))));
     }
 }
\ No newline at end of file
@@ -1,9 +1,9 @@
 package com.lab.service.impl;
 
+import com.lab.cache.TestTypeCatalog;
 import com.lab.cache.impl.CacheServiceImpl;
 import com.lab.dto.request.TestTypeRequestDTO;
 import com.lab.dto.response.TestTypeResponseDTO;
-import com.lab.entity.Test;
 import com.lab.entity.TestType;
 import com.lab.exception.TestTypeNotFoundException;
 import com.lab.mapper.impl.TestTypeMapperImpl;
@@ -11,11 +11,11 @@ import com.lab.repository.TestRepository;
 import com.lab.repository.TestTypeRepository;
 import com.lab.service.TestTypeService;
 import jakarta.transaction.Transactional;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.CachePut;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -28,22 +28,35 @@ public class TestTypeServiceImpl implements TestTypeService {
     private final TestTypeMapperImpl testTypeMapperImpl;
     private final CacheServiceImpl cacheServiceImpl;
     private final TestRepository testRepository;
+    private final TestTypeCatalog testTypeCatalog;
+    private final OrderServiceImpl orderServiceImpl;
 
     public TestTypeServiceImpl(
             TestTypeRepository testTypeRepository,
             TestTypeMapperImpl testTypeMapperImpl,
             CacheServiceImpl cacheServiceImpl,
-            TestRepository testRepository
+            TestRepository testRepository,
+            TestTypeCatalog testTypeCatalog,
+            OrderServiceImpl orderServiceImpl
     ) {
         this.testTypeRepository = testTypeRepository;
         this.testTypeMapperImpl = testTypeMapperImpl;
         this.cacheServiceImpl = cacheServiceImpl;
         this.testRepository = testRepository;
+        this.testTypeCatalog = testTypeCatalog;
+        this.orderServiceImpl = orderServiceImpl;
     }
 
+    /**
+     * Страница типов исследований из справочника в памяти
+     * <p>
+     * Справочник упорядочен по id; при явной сортировке запрос уходит в БД.
+     */
     @Override
     public Page<TestTypeResponseDTO> getAllTestTypes(Pageable pageable) {
-        Page<TestType> testTypesPage = testTypeRepository.findAll(pageable);
+        Page<TestType> testTypesPage = pageable.getSort().isSorted()
+                ? testTypeRepository.findAll(pageable)
+                : pageOf(testTypeCatalog.findAll(), pageable);
 
         if (testTypesPage.isEmpty()) {
             throw new TestTypeNotFoundException("Типов исследования не найдено");
@@ -51,10 +64,38 @@ public class TestTypeServiceImpl implements TestTypeService {
         return testTypesPage.map(testTypeMapperImpl::toResponseDTO);
     }
 
+    /**
+     * Keyset-пагинация: страница элементов с id больше курсора
+     *
+     * @param afterId id последнего элемента предыдущей страницы (0 - первая страница)
+     * @param size    размер страницы
+     */
+    @Override
+    public Slice<TestTypeResponseDTO> getTestTypesAfter(long afterId, int size) {
+        List<TestType> after = testTypeCatalog.findAll().stream()
+                .filter(testType -> testType.getId() > afterId)
+                .limit(size + 1L)
+                .toList();
+        Slice<TestType> testTypesSlice = new SliceImpl<>(
+                after.subList(0, Math.min(size, after.size())),
+                Pageable.ofSize(size),
+                after.size() > size
+        );
+
+        if (afterId == 0 && testTypesSlice.isEmpty()) {
+            throw new TestTypeNotFoundException("Типов исследования не найдено");
+        }
+        return testTypesSlice.map(testTypeMapperImpl::toResponseDTO);
+    }
+
+    @Override
+    public long countTestTypes() {
+        return testTypeCatalog.findAll().size();
+    }
+
     @Override
-    @Cacheable(value = "testTypes", key = "#id")
     public TestTypeResponseDTO getTestTypeById(Long id) {
-        TestType testType = testTypeRepository.findById(id)
+        TestType testType = testTypeCatalog.findById(id)
                 .orElseThrow(() -> new TestTypeNotFoundException("Типа исследования с id-" + id + " не найдено"));
         return testTypeMapperImpl.toResponseDTO(testType);
     }
@@ -64,11 +105,11 @@ public class TestTypeServiceImpl implements TestTypeService {
         TestType testType = testTypeMapperImpl.toEntity(testTypeDTO);
 
         testType = testTypeRepository.save(testType);
+        testTypeCatalog.put(testType);
         return testTypeMapperImpl.toResponseDTO(testType);
     }
 
     @Override
-    @CachePut(value = "testTypes", key = "#id")
     public TestTypeResponseDTO updateTestType(Long id, TestTypeRequestDTO testTypeDTO) {
         TestType testType = testTypeRepository.findById(id)
                 .orElseThrow(() -> new TestTypeNotFoundException("Типа исследования с id-" + id + " не найдено"));
@@ -79,25 +120,42 @@ public class TestTypeServiceImpl implements TestTypeService {
         testType.setDescription(testTypeDTO.getDescription());
         testType.setCode(testTypeDTO.getCode());
         testType.setPrice(testTypeDTO.getPrice());
+        testType.setUnit(testTypeDTO.getUnit());
+        testType.setReferenceLow(testTypeDTO.getReferenceLow());
+        testType.setReferenceHigh(testTypeDTO.getReferenceHigh());
+        testType.setCriticalLow(testTypeDTO.getCriticalLow());
+        testType.setCriticalHigh(testTypeDTO.getCriticalHigh());
 
         testType = testTypeRepository.save(testType);
+        testTypeCatalog.put(testType);
         return testTypeMapperImpl.toResponseDTO(testType);
     }
 
     @Override
     @Transactional
-    @CacheEvict(value = "testTypes", key = "#id")
     public void deleteTestType(Long id) {
         TestType testType = testTypeRepository.findById(id)
                 .orElseThrow(() -> new TestTypeNotFoundException("Типа исследования с id-" + id + " не найдено"));
 
-        List<Test> tests = testRepository.findAllByTestTypeId(testType.getId());
-        testRepository.deleteAll(tests);
-        tests.forEach(cacheServiceImpl::evictTestCaches);
+        List<Long> testIds = testRepository.findIdsByTestTypeId(testType.getId());
+        List<Long> orderIds = testRepository.findOrderIdsByTestTypeId(testType.getId());
+        testRepository.deleteByTestTypeIdInBulk(testType.getId());
+        cacheServiceImpl.evictTestCachesByIds(testIds);
+        orderServiceImpl.recountPendingTests(orderIds);
 
         cacheServiceImpl.evictTestTypeCaches(testType);
 
         testTypeRepository.delete(testType);
+        testTypeCatalog.remove(testType.getId());
+    }
+
+    private static Page<TestType> pageOf(List<TestType> testTypes, Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(testTypes);
+        }
+        int from = (int) Math.min(pageable.getOffset(), testTypes.size());
+        int to = Math.min(from + pageable.getPageSize(), testTypes.size());
+        return new PageImpl<>(testTypes.subList(from, to), pageable, testTypes.size());
     }
 
 }
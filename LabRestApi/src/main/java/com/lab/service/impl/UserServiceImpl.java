@@ -7,6 +7,8 @@ import com.lab.exception.UserNotFoundException;
 import com.lab.repository.UserRepository;
 import com.lab.service.UserService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.stereotype.Service;
@@ -16,6 +18,7 @@ import org.springframework.stereotype.Service;
 public class UserServiceImpl implements UserService {
 
     private final UserRepository repository;
+    private final CacheManager cacheManager;
 
 
     /**
@@ -25,7 +28,9 @@ public class UserServiceImpl implements UserService {
      */
     @Override
     public User save(User user) {
-        return repository.save(user);
+        User saved = repository.save(user);
+        usersCache().evict(saved.getUsername());
+        return saved;
     }
 
 
@@ -49,15 +54,36 @@ public class UserServiceImpl implements UserService {
 
     /**
      * Получение пользователя по имени пользователя
+     * <p>
+     * Всегда читает БД: используется при входе и для проверки токена,
+     * где удаление пользователя и смена роли должны действовать сразу.
      *
      * @return пользователь
      */
     @Override
     public User getByUsername(String username) {
-
         return repository.findByUsername(username)
                 .orElseThrow(() -> new UserNotFoundException("Пользователь не найден"));
+    }
 
+    /**
+     * Получение пользователя через кэш с коротким TTL (token.user-cache-ttl)
+     * <p>
+     * Только для мест, где допустимо отставание на TTL: текущий пользователь и
+     * stateless-режим. Каждый вызов получает свою копию, общий объект из кэша
+     * не передается между потоками.
+     *
+     * @return копия пользователя
+     */
+    @Override
+    public User getCachedByUsername(String username) {
+        Cache cache = usersCache();
+        User cached = cache.get(username, User.class);
+        if (cached == null) {
+            cached = copyOf(getByUsername(username));
+            cache.put(username, cached);
+        }
+        return copyOf(cached);
     }
 
     /**
@@ -81,7 +107,20 @@ public class UserServiceImpl implements UserService {
     public User getCurrentUser() {
         // Получение имени пользователя из контекста Spring Security
         var username = SecurityContextHolder.getContext().getAuthentication().getName();
-        return getByUsername(username);
+        return getCachedByUsername(username);
     }
 
+    private static User copyOf(User user) {
+        return User.builder()
+                .id(user.getId())
+                .username(user.getUsername())
+                .password(user.getPassword())
+                .email(user.getEmail())
+                .role(user.getRole())
+                .build();
+    }
+
+    private Cache usersCache() {
+        return cacheManager.getCache("users");
+    }
 }
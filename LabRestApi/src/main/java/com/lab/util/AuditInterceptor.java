@@ -1,36 +1,38 @@
 package com.lab.util;
 
 
-import com.lab.service.impl.JwtServiceImpl;
+import com.lab.audit.AuditEvent;
+import com.lab.audit.AuditLogWriter;
+import com.lab.security.JwtClaimsHolder;
+import io.jsonwebtoken.Claims;
 import javax.annotation.Nullable;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.NonNull;
-import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 import org.springframework.web.servlet.HandlerInterceptor;
 
 import java.time.LocalDateTime;
 
-@Slf4j
 @Component
 public class AuditInterceptor implements HandlerInterceptor {
 
-    private final JwtServiceImpl jwtService;
+    private final AuditLogWriter auditLogWriter;
 
-    public AuditInterceptor(JwtServiceImpl jwtService) {
-        this.jwtService = jwtService;
+    public AuditInterceptor(AuditLogWriter auditLogWriter) {
+        this.auditLogWriter = auditLogWriter;
     }
 
+    /**
+     * Имя пользователя берется из claims, уже проверенных JwtAuthenticationFilter,
+     * повторный разбор и проверка подписи токена не выполняются
+     */
     private String extractUsername(HttpServletRequest request) {
         String authHeader = request.getHeader("Authorization");
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            String token = authHeader.substring(7);
-            try {
-                return jwtService.extractUserName(token);
-            } catch (Exception e) {
-                return "unknown-user";
-            }
+            return JwtClaimsHolder.get(request)
+                    .map(Claims::getSubject)
+                    .orElse("unknown-user");
         }
         return "anonymous";
     }
@@ -48,15 +50,15 @@ public class AuditInterceptor implements HandlerInterceptor {
                                 @NonNull Object handler,
                                 @Nullable Exception ex) {
 
-        String method = request.getMethod();
-        String uri = request.getRequestURI();
-        String ip = request.getRemoteAddr();
-        String username = extractUsername(request);
-        int status = response.getStatus();
-
-        log.info("Interceptor: [{}] {} запрос от пользователя {} к {} (IP: {}) => статус: {}{}",
-                LocalDateTime.now(), method, username, uri, ip, status,
-                ex != null ? (", ошибка: " + ex.getClass().getSimpleName()) : "");
+        auditLogWriter.publish(new AuditEvent(
+                LocalDateTime.now(),
+                request.getMethod(),
+                request.getRequestURI(),
+                extractUsername(request),
+                request.getRemoteAddr(),
+                response.getStatus(),
+                ex != null ? ex.getClass().getSimpleName() : null
+        ));
     }
 
 }
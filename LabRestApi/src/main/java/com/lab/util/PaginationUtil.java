@@ -1,9 +1,16 @@
 package com.lab.util;
 
+import com.lab.exception.InvalidCursorException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpHeaders;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.function.Function;
+
 public final class PaginationUtil {
 
     private PaginationUtil() {
@@ -30,8 +37,87 @@ public final class PaginationUtil {
         return headers;
     }
 
+    /**
+     * Заголовки для курсорной (keyset) пагинации
+     * <p>
+     * Ссылка next строится по id последнего элемента страницы. X-Total-Count
+     * добавляется только если общее количество было запрошено явно, в этом случае
+     * параметр count=true сохраняется и в ссылках.
+     *
+     * @param slice      страница без подсчета общего количества
+     * @param idFunction получение id элемента
+     * @param totalCount общее количество или null
+     * @param baseUrl    адрес ресурса
+     */
+    public static <T> HttpHeaders generateCursorHttpHeaders(
+            Slice<T> slice,
+            Function<T, Long> idFunction,
+            Long totalCount,
+            String baseUrl
+    ) {
+        HttpHeaders headers = new HttpHeaders();
+        if (totalCount != null) {
+            headers.add("X-Total-Count", Long.toString(totalCount));
+        }
+        String link = "";
+        if (slice.hasNext()) {
+            T last = slice.getContent().get(slice.getNumberOfElements() - 1);
+            link = "<" + generateCursorUri(baseUrl, encodeCursor(idFunction.apply(last)), slice.getSize(), totalCount != null)
+                    + ">; rel=\"next\",";
+        }
+        link += "<" + generateCursorUri(baseUrl, "", slice.getSize(), totalCount != null) + ">; rel=\"first\"";
+        headers.add(HttpHeaders.LINK, link);
+        return headers;
+    }
+
+    public static String encodeCursor(Long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(Long.toString(id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Разбор курсора с проверкой параметров страницы
+     * <p>
+     * Keyset-пагинация всегда упорядочена по id, поэтому параметр sort вместе с after
+     * отклоняется, а не игнорируется молча.
+     *
+     * @param cursor   значение параметра after
+     * @param pageable параметры страницы из запроса
+     * @return id, после которого начинается страница
+     */
+    public static long decodeCursor(String cursor, Pageable pageable) {
+        if (pageable.getSort().isSorted()) {
+            throw new InvalidCursorException("Параметр sort не поддерживается вместе с after: курсорная пагинация упорядочена по id");
+        }
+        return decodeCursor(cursor);
+    }
+
+    /**
+     * Разбор курсора. Пустой курсор означает первую страницу
+     *
+     * @param cursor значение параметра after
+     * @return id, после которого начинается страница
+     */
+    public static long decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            return Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Некорректное значение курсора: " + cursor);
+        }
+    }
+
     private static String generateUri(String baseUrl, int page, int size) {
         return UriComponentsBuilder.fromUriString(baseUrl).queryParam("page", page).queryParam("size", size).toUriString();
     }
-}
 
+    private static String generateCursorUri(String baseUrl, String cursor, int size, boolean count) {
+        UriComponentsBuilder builder = UriComponentsBuilder.fromUriString(baseUrl).queryParam("after", cursor).queryParam("size", size);
+        if (count) {
+            builder.queryParam("count", true);
+        }
+        return builder.toUriString();
+    }
+}
@@ -0,0 +1,54 @@
+package com.lab.audit;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+public class AuditLogWriterTest {
+
+    private final AuditEvent event = new AuditEvent(
+            LocalDateTime.now(), "GET", "/api/v1/tests", "user", "127.0.0.1", 200, null);
+
+    @Test
+    void publish_ShouldWaitWithoutSpinning_AndDrop_WhenBlockTimeoutExpires() {
+        // Поток записи не запущен, поэтому место в буфере не освободится
+        AuditLogWriter writer = new AuditLogWriter(
+                4, 4, AuditOverflowPolicy.BLOCK, Duration.ofMillis(100), Duration.ofMillis(10));
+        for (int i = 0; i < 4; i++) {
+            assertTrue(writer.publish(event));
+        }
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        long cpuBefore = threads.getCurrentThreadCpuTime();
+        long wallBefore = System.nanoTime();
+
+        assertFalse(writer.publish(event));
+
+        long wall = System.nanoTime() - wallBefore;
+        long cpu = threads.getCurrentThreadCpuTime() - cpuBefore;
+        assertTrue(wall >= TimeUnit.MILLISECONDS.toNanos(100));
+        assertTrue(cpu < wall / 4, "ожидание не должно занимать процессор: " + cpu + " нс из " + wall);
+        assertEquals(1, writer.getDroppedEvents());
+    }
+
+    @Test
+    void publish_ShouldDropImmediately_WithDropPolicy() {
+        AuditLogWriter writer = new AuditLogWriter(
+                4, 4, AuditOverflowPolicy.DROP, Duration.ofSeconds(10), Duration.ofMillis(10));
+        for (int i = 0; i < 4; i++) {
+            assertTrue(writer.publish(event));
+        }
+        long before = System.nanoTime();
+
+        assertFalse(writer.publish(event));
+
+        assertTrue(System.nanoTime() - before < TimeUnit.SECONDS.toNanos(1));
+        assertEquals(1, writer.getDroppedEvents());
+    }
+}
@@ -0,0 +1,32 @@
+package com.lab.audit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+public class AuditMetricsTest {
+
+    private final AuditEvent event = new AuditEvent(
+            LocalDateTime.now(), "GET", "/api/v1/tests", "user", "127.0.0.1", 200, null);
+
+    @Test
+    void bindTo_ShouldExposeDroppedAndQueuedEvents() {
+        AuditLogWriter writer = new AuditLogWriter(
+                2, 2, AuditOverflowPolicy.DROP, Duration.ofMillis(10), Duration.ofMillis(10));
+        MeterRegistry registry = new SimpleMeterRegistry();
+        new AuditMetrics(writer).bindTo(registry);
+
+        for (int i = 0; i < 3; i++) {
+            writer.publish(event);
+        }
+
+        assertEquals(1.0, registry.get("audit.events.dropped").functionCounter().count());
+        assertEquals(2.0, registry.get("audit.events.queued").gauge().value());
+    }
+}
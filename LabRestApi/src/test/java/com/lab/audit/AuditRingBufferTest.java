@@ -0,0 +1,78 @@
+package com.lab.audit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+public class AuditRingBufferTest {
+
+    @Test
+    void capacity_ShouldBeRoundedUpToPowerOfTwo() {
+        assertEquals(8, new AuditRingBuffer<Integer>(5).capacity());
+        assertEquals(8, new AuditRingBuffer<Integer>(8).capacity());
+    }
+
+    @Test
+    void offer_ShouldReturnFalse_WhenBufferIsFull() {
+        AuditRingBuffer<Integer> buffer = new AuditRingBuffer<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(i));
+        }
+
+        assertFalse(buffer.offer(4));
+
+        List<Integer> drained = new ArrayList<>();
+        assertEquals(4, buffer.drainTo(drained, 10));
+        assertEquals(List.of(0, 1, 2, 3), drained);
+        assertTrue(buffer.offer(4));
+    }
+
+    @Test
+    void drainTo_ShouldReceiveEveryElement_WithConcurrentProducers() throws Exception {
+        AuditRingBuffer<Integer> buffer = new AuditRingBuffer<>(64);
+        int producers = 4;
+        int perProducer = 10_000;
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        CountDownLatch start = new CountDownLatch(1);
+
+        for (int p = 0; p < producers; p++) {
+            int base = p * perProducer;
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < perProducer; i++) {
+                    while (!buffer.offer(base + i)) {
+                        if (Thread.currentThread().isInterrupted()) {
+                            return null;
+                        }
+                        Thread.yield();
+                    }
+                }
+                return null;
+            });
+        }
+
+        start.countDown();
+        Set<Integer> received = new HashSet<>();
+        List<Integer> batch = new ArrayList<>();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (received.size() < producers * perProducer && System.nanoTime() < deadline) {
+            buffer.drainTo(batch, 32);
+            received.addAll(batch);
+            batch.clear();
+        }
+        executor.shutdownNow();
+
+        assertEquals(producers * perProducer, received.size());
+        assertEquals(0, buffer.size());
+    }
+}
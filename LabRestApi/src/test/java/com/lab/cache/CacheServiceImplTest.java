@@ -0,0 +1,177 @@
+package com.lab.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.lab.cache.impl.CacheServiceImpl;
+import com.lab.dto.request.PatientRequestDTO;
+import com.lab.dto.response.PatientResponseDTO;
+import com.lab.entity.Gender;
+import com.lab.entity.Patient;
+import com.lab.mapper.impl.OrderMapperImpl;
+import com.lab.mapper.impl.PatientMapperImpl;
+import com.lab.pdf.PdfReportCache;
+import com.lab.repository.OrderRepository;
+import com.lab.repository.PatientRepository;
+import com.lab.repository.TestRepository;
+import com.lab.service.PatientService;
+import com.lab.service.impl.PatientServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionManager;
+import org.springframework.transaction.annotation.AnnotationTransactionAttributeSource;
+import org.springframework.transaction.interceptor.TransactionInterceptor;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+
+/**
+ * Инвалидация кэшей поиска пациентов при конкурентных чтениях и записях
+ */
+public class CacheServiceImplTest {
+
+    private final Patient patient = new Patient(
+            1L, "Иванов", "Иван", "Иванович", LocalDate.of(1970, 1, 1), Gender.MALE, "+79028518877", "123");
+    private final PatientSearchKey key = PatientSearchKey.of(patient);
+    private final List<PatientResponseDTO> stale = List.of();
+
+    private CaffeineCacheManager cacheManager;
+    private CacheServiceImpl cacheService;
+    private Cache byFio;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager = new CaffeineCacheManager("patients", "patientsByFio", "patientsByBirthDate", "notFound");
+        cacheManager.setCaffeine(Caffeine.newBuilder().maximumSize(100));
+        cacheService = new CacheServiceImpl(cacheManager,
+                new StaticListableBeanFactory().getBeanProvider(CacheInvalidationBus.class),
+                mock(PdfReportCache.class));
+        byFio = cacheManager.getCache("patientsByFio");
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void searchKey_ShouldDistinguishTriples_WithEqualHashes() {
+        // "Aa" и "BB" имеют одинаковый hashCode
+        PatientSearchKey first = new PatientSearchKey("Aa", "BB", null);
+        PatientSearchKey second = new PatientSearchKey("BB", "Aa", null);
+
+        byFio.put(first, stale);
+
+        assertNotEquals(first, second);
+        assertNull(byFio.get(second));
+    }
+
+    @Test
+    void evictPatientCaches_ShouldEvictAgainAfterCommit_WhenSearchRepopulatedBeforeCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        byFio.put(key, stale);
+
+        cacheService.evictPatientCaches(patient);
+        assertNull(byFio.get(key));
+
+        // Параллельный поиск до коммита видит старые данные и кладет их в кэш
+        byFio.put(key, stale);
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertNull(byFio.get(key));
+        assertNull(cacheManager.getCache("patientsByBirthDate").get(patient.getBirthDate()));
+    }
+
+    @Test
+    void updatePatient_ShouldEvictSearchAfterCommit_WhenSearchRepopulatedBeforeCommit() {
+        PatientRepository patientRepository = mock(PatientRepository.class);
+        when(patientRepository.findById(1L)).thenReturn(Optional.of(patient));
+        when(patientRepository.save(patient)).thenReturn(patient);
+        AtomicInteger commits = new AtomicInteger();
+        AbstractPlatformTransactionManager transactionManager = new AbstractPlatformTransactionManager() {
+            @Override
+            protected Object doGetTransaction() {
+                return new Object();
+            }
+
+            @Override
+            protected void doBegin(Object transaction, TransactionDefinition definition) {
+            }
+
+            @Override
+            protected void doCommit(DefaultTransactionStatus status) {
+                commits.incrementAndGet();
+                // Параллельный поиск между вытеснением и коммитом кладет в кэш старые данные
+                byFio.put(key, stale);
+            }
+
+            @Override
+            protected void doRollback(DefaultTransactionStatus status) {
+            }
+        };
+        ProxyFactory proxyFactory = new ProxyFactory(new PatientServiceImpl(patientRepository,
+                mock(OrderRepository.class), mock(PatientMapperImpl.class), mock(OrderMapperImpl.class),
+                cacheService, mock(TestRepository.class)));
+        proxyFactory.addAdvice(new TransactionInterceptor(
+                (TransactionManager) transactionManager, new AnnotationTransactionAttributeSource()));
+        PatientService patientService = (PatientService) proxyFactory.getProxy();
+
+        patientService.updatePatient(1L, new PatientRequestDTO(patient.getLastName(), patient.getFirstName(),
+                patient.getMiddleName(), patient.getBirthDate(), Gender.MALE, "+79028518877", "123"));
+
+        assertEquals(1, commits.get());
+        assertNull(byFio.get(key));
+    }
+
+    @Test
+    void evictPatientCaches_ShouldDropValue_LoadedConcurrentlyWithWrite() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<List<PatientResponseDTO>> search = CompletableFuture.supplyAsync(() ->
+                byFio.get(key, () -> {
+                    loading.countDown();
+                    release.await(5, TimeUnit.SECONDS);
+                    return stale;
+                }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<Void> write = CompletableFuture.runAsync(() -> cacheService.evictPatientCaches(patient));
+        release.countDown();
+
+        assertSame(stale, search.get(5, TimeUnit.SECONDS));
+        write.get(5, TimeUnit.SECONDS);
+        assertNull(byFio.get(key));
+    }
+
+    @Test
+    void evictMissing_ShouldForgetMissingId_OnlyForSameCache() {
+        cacheService.markMissing("orders", 5L);
+        cacheService.markMissing("tests", 5L);
+
+        cacheService.evictMissing("orders", 5L);
+
+        assertFalse(cacheService.isKnownMissing("orders", 5L));
+        assertTrue(cacheService.isKnownMissing("tests", 5L));
+    }
+}
@@ -0,0 +1,97 @@
+package com.lab.cache;
+
+import com.lab.cache.impl.PgNotifyCacheInvalidationBus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+
+@ExtendWith(MockitoExtension.class)
+public class PgNotifyCacheInvalidationBusTest {
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private TestTypeCatalog testTypeCatalog;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private Cache cache;
+
+    private PgNotifyCacheInvalidationBus bus;
+
+    @BeforeEach
+    void setUp() {
+        bus = new PgNotifyCacheInvalidationBus(cacheManager, testTypeCatalog, jdbcTemplate,
+                new DataSourceProperties(), "lab_cache_invalidation", "node-a", 3, Duration.ofSeconds(5));
+    }
+
+    @Test
+    void flush_ShouldCoalesceBurst_IntoOneNotificationPerCache() {
+        bus.publish("orders", List.of(1L));
+        bus.publish("orders", List.of(1L, 2L));
+        bus.publish("orders", List.of(2L));
+
+        bus.flush();
+
+        ArgumentCaptor<Object> payload = ArgumentCaptor.forClass(Object.class);
+        verify(jdbcTemplate).queryForList(eq("SELECT pg_notify(?, ?)"), eq("lab_cache_invalidation"), payload.capture());
+        String[] parts = payload.getValue().toString().split("\\|");
+        assertEquals("node-a", parts[0]);
+        assertEquals("orders", parts[1]);
+        assertEquals(Set.of("1", "2"), Set.of(parts[2].split(",")));
+    }
+
+    @Test
+    void flush_ShouldSendClear_WhenTooManyKeys() {
+        bus.publish("tests", List.of(1L, 2L, 3L, 4L));
+
+        bus.flush();
+
+        verify(jdbcTemplate).queryForList("SELECT pg_notify(?, ?)", "lab_cache_invalidation", "node-a|tests|*");
+    }
+
+    @Test
+    void apply_ShouldEvictTypedKeys_FromOtherNode() {
+        when(cacheManager.getCache("patientsByBirthDate")).thenReturn(cache);
+
+        ReflectionTestUtils.invokeMethod(bus, "apply", "node-b|patientsByBirthDate|1990-01-01,1991-02-03");
+
+        verify(cache).evict(LocalDate.of(1990, 1, 1));
+        verify(cache).evict(LocalDate.of(1991, 2, 3));
+    }
+
+    @Test
+    void apply_ShouldIgnoreOwnMessages() {
+        ReflectionTestUtils.invokeMethod(bus, "apply", "node-a|orders|1");
+
+        verifyNoInteractions(cacheManager);
+    }
+
+    @Test
+    void apply_ShouldReloadCatalog_WhenTestTypeChanged() {
+        ReflectionTestUtils.invokeMethod(bus, "apply", "node-b|testTypes|5");
+
+        verify(testTypeCatalog).reload();
+    }
+}
@@ -0,0 +1,66 @@
+package com.lab.cache;
+
+import com.lab.cache.impl.TestTypeCatalogImpl;
+import com.lab.entity.TestType;
+import com.lab.repository.TestTypeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+
+@ExtendWith(MockitoExtension.class)
+public class TestTypeCatalogImplTest {
+
+    @Mock
+    private TestTypeRepository testTypeRepository;
+
+    @InjectMocks
+    private TestTypeCatalogImpl testTypeCatalog;
+
+    private final TestType blood = new TestType(2L, "Кровь", "BLOOD", "Общий анализ крови", new BigDecimal("10.00"), null, null, null, null, null);
+    private final TestType hiv = new TestType(1L, "HIV", "CODE_HIV", "HIV_TEST123", new BigDecimal("30.00"), null, null, null, null, null);
+
+    @BeforeEach
+    void setUp() {
+        when(testTypeRepository.findAll()).thenReturn(List.of(blood, hiv));
+        testTypeCatalog.reload();
+    }
+
+    @Test
+    void findAll_ShouldReturnTypesOrderedById() {
+        List<TestType> all = testTypeCatalog.findAll();
+
+        assertEquals(List.of(1L, 2L), all.stream().map(TestType::getId).toList());
+        assertEquals("BLOOD", testTypeCatalog.findByCode("BLOOD").orElseThrow().getCode());
+    }
+
+    @Test
+    void put_ShouldSwapSnapshot_WithoutChangingPreviouslyReturnedList() {
+        List<TestType> before = testTypeCatalog.findAll();
+
+        testTypeCatalog.put(new TestType(2L, "Кровь", "BLOOD_V2", "Новый код", new BigDecimal("12.00"), null, null, null, null, null));
+
+        assertEquals(2, before.size());
+        assertEquals("BLOOD", before.get(1).getCode());
+        assertTrue(testTypeCatalog.findByCode("BLOOD").isEmpty());
+        assertEquals("BLOOD_V2", testTypeCatalog.findById(2L).orElseThrow().getCode());
+    }
+
+    @Test
+    void remove_ShouldDropTypeFromAllIndexes() {
+        testTypeCatalog.remove(1L);
+
+        assertTrue(testTypeCatalog.findById(1L).isEmpty());
+        assertTrue(testTypeCatalog.findByCode("CODE_HIV").isEmpty());
+        assertEquals(1, testTypeCatalog.findAll().size());
+    }
+}
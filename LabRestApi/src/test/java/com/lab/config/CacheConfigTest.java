@@ -0,0 +1,127 @@
+package com.lab.config;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.lab.dto.response.OrderResponseDTO;
+import com.lab.entity.Status;
+import com.lab.repository.OrderRepository;
+import com.lab.repository.PatientRepository;
+import com.lab.repository.TestRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+
+/**
+ * Поведение кэша orders под конкурентной нагрузкой на уровне Caffeine:
+ * один запрос к БД на ключ при промахе и при фоновом обновлении
+ */
+@ExtendWith(MockitoExtension.class)
+public class CacheConfigTest {
+
+    private static final int THREADS = 32;
+
+    @Mock
+    private PatientRepository patientRepository;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private TestRepository testRepository;
+
+    private CaffeineCache ordersCache;
+
+    private final OrderResponseDTO stale = new OrderResponseDTO(1L, 1L, LocalDateTime.now(), Status.REGISTERED, "old");
+    private final OrderResponseDTO fresh = new OrderResponseDTO(1L, 1L, LocalDateTime.now(), Status.REGISTERED, "new");
+
+    @BeforeEach
+    void setUp() {
+        CaffeineCacheProperties properties = new CaffeineCacheProperties();
+        properties.setSpecs(Map.of("orders", "maximumSize=100,expireAfterWrite=10m,refreshAfterWrite=1m"));
+        CaffeineCacheManager cacheManager = new CacheConfig().cacheManager(
+                properties, Duration.ofSeconds(30), patientRepository, orderRepository, testRepository);
+        ordersCache = (CaffeineCache) cacheManager.getCache("orders");
+    }
+
+    @Test
+    void get_ShouldLoadOnce_WhenManyThreadsMissSameKey() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+
+        List<Object> results = concurrently(() -> ordersCache.get(1L, () -> {
+            loads.incrementAndGet();
+            Thread.sleep(50);
+            return stale;
+        }));
+
+        assertEquals(1, loads.get());
+        results.forEach(result -> assertSame(stale, result));
+    }
+
+    @Test
+    void get_ShouldServeStaleAndReloadOnce_WhenEntryIsDueForRefresh() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(orderRepository.findProjectedById(1L)).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return Optional.of(fresh);
+        });
+        ordersCache.put(1L, stale);
+        AsyncCache<Object, Object> asyncCache = ordersCache.getAsyncCache();
+        asyncCache.synchronous().policy().refreshAfterWrite().orElseThrow().setRefreshesAfter(Duration.ofNanos(1));
+
+        List<Object> results = concurrently(() -> ordersCache.get(1L, () -> fail("Промах кэша не ожидается")));
+        results.forEach(result -> assertSame(stale, result));
+
+        asyncCache.synchronous().policy().refreshAfterWrite().orElseThrow().setRefreshesAfter(Duration.ofMinutes(1));
+        release.countDown();
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (ordersCache.get(1L).get() != fresh && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertSame(fresh, ordersCache.get(1L).get());
+        verify(orderRepository, times(1)).findProjectedById(1L);
+    }
+
+    private static List<Object> concurrently(Callable<Object> call) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Object>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    return call.call();
+                }));
+            }
+            start.countDown();
+            List<Object> results = new ArrayList<>();
+            for (Future<Object> future : futures) {
+                results.add(future.get(5, TimeUnit.SECONDS));
+            }
+            return results;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
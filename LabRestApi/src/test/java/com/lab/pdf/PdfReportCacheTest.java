@@ -0,0 +1,118 @@
+package com.lab.pdf;
+
+import com.lab.entity.Status;
+import com.lab.entity.TestStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+public class PdfReportCacheTest {
+
+    private final LocalDateTime created = LocalDateTime.of(2024, 1, 10, 9, 0);
+
+    private Path directory;
+    private PdfReportCache cache;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("pdf-cache-test");
+        cache = new PdfReportCache(directory, DataSize.ofBytes(1000));
+        cache.init();
+    }
+
+    private TestReport report(long testId, String result) {
+        return new TestReport(testId, 1L, "Иванов", "Иван", created, Status.COMPLETED, null,
+                "Глюкоза", created.plusHours(2), result, "3.5-5.5", TestStatus.COMPLETED);
+    }
+
+    private Path store(long testId, String version, int size) {
+        return cache.store(testId, version, out -> {
+            try {
+                out.write(new byte[size]);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    @Test
+    void version_ShouldChange_WhenReportChanges() {
+        assertEquals(PdfReportCache.version(report(1L, "5.2")), PdfReportCache.version(report(1L, "5.2")));
+        assertNotEquals(PdfReportCache.version(report(1L, "5.2")), PdfReportCache.version(report(1L, "5.3")));
+    }
+
+    @Test
+    void store_ShouldReplacePreviousVersion_OfSameTest() {
+        Path old = store(1L, "aaaa", 100);
+        Path other = store(12L, "aaaa", 100);
+        Path fresh = store(1L, "bbbb", 100);
+
+        assertFalse(Files.exists(old));
+        assertTrue(Files.exists(other));
+        assertEquals(Optional.of(fresh), cache.find(1L, "bbbb"));
+        assertTrue(cache.find(1L, "aaaa").isEmpty());
+    }
+
+    @Test
+    void evict_ShouldDeleteAllVersions_OfTest() {
+        store(1L, "aaaa", 100);
+        Path other = store(12L, "aaaa", 100);
+
+        cache.evict(1L);
+
+        assertTrue(cache.find(1L, "aaaa").isEmpty());
+        assertTrue(Files.exists(other));
+    }
+
+    @Test
+    void store_ShouldCountSize_Once_WhenSameVersionStoredAgain() {
+        Path first = store(1L, "aaaa", 400);
+        store(1L, "aaaa", 400);
+
+        Path second = store(2L, "aaaa", 400);
+
+        assertTrue(Files.exists(first));
+        assertTrue(Files.exists(second));
+    }
+
+    @Test
+    void init_ShouldIndexExistingFiles_AndKeepOnlyLatestVersion() throws IOException {
+        Path old = store(1L, "aaaa", 100);
+        Path fresh = directory.resolve("1-bbbb.pdf");
+        Files.write(fresh, new byte[100]);
+        Files.setLastModifiedTime(old, FileTime.fromMillis(1_000_000));
+        Files.setLastModifiedTime(fresh, FileTime.fromMillis(2_000_000));
+
+        PdfReportCache restarted = new PdfReportCache(directory, DataSize.ofBytes(1000));
+        restarted.init();
+
+        assertFalse(Files.exists(old));
+        assertEquals(Optional.of(fresh), restarted.find(1L, "bbbb"));
+        restarted.evict(1L);
+        assertFalse(Files.exists(fresh));
+    }
+
+    @Test
+    void store_ShouldRemoveLeastRecentlyUsed_WhenOverLimit() throws IOException {
+        Path first = store(1L, "aaaa", 400);
+        Path second = store(2L, "aaaa", 400);
+        Files.setLastModifiedTime(first, FileTime.fromMillis(2_000_000));
+        Files.setLastModifiedTime(second, FileTime.fromMillis(1_000_000));
+
+        Path third = store(3L, "aaaa", 400);
+
+        assertTrue(Files.exists(first));
+        assertFalse(Files.exists(second));
+        assertTrue(Files.exists(third));
+    }
+}
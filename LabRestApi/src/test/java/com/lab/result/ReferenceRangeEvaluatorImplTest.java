@@ -0,0 +1,61 @@
+package com.lab.result;
+
+import com.lab.entity.ResultFlag;
+import com.lab.entity.TestType;
+import com.lab.result.impl.ReferenceRangeEvaluatorImpl;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+public class ReferenceRangeEvaluatorImplTest {
+
+    private final ReferenceRangeEvaluator evaluator = new ReferenceRangeEvaluatorImpl();
+
+    private final TestType potassium = TestType.builder()
+            .id(1L)
+            .name("Калий")
+            .unit("ммоль/л")
+            .referenceLow(new BigDecimal("3.5"))
+            .referenceHigh(new BigDecimal("5.1"))
+            .criticalLow(new BigDecimal("2.5"))
+            .criticalHigh(new BigDecimal("6.5"))
+            .build();
+
+    private ResultFlag evaluate(String value) {
+        return evaluator.evaluate(potassium, new BigDecimal(value));
+    }
+
+    @Test
+    void evaluate_ShouldFlagEachRange() {
+        assertEquals(ResultFlag.CRITICAL_LOW, evaluate("2.4"));
+        assertEquals(ResultFlag.LOW, evaluate("3.0"));
+        assertEquals(ResultFlag.NORMAL, evaluate("4.2"));
+        assertEquals(ResultFlag.HIGH, evaluate("6.0"));
+        assertEquals(ResultFlag.CRITICAL_HIGH, evaluate("7.1"));
+    }
+
+    @Test
+    void evaluate_ShouldTreatBoundsAsInclusive_RegardlessOfScale() {
+        assertEquals(ResultFlag.NORMAL, evaluate("3.500"));
+        assertEquals(ResultFlag.NORMAL, evaluate("5.1"));
+        assertEquals(ResultFlag.LOW, evaluate("2.5"));
+        assertEquals(ResultFlag.HIGH, evaluate("6.50"));
+    }
+
+    @Test
+    void evaluate_ShouldIgnoreMissingBounds() {
+        TestType onlyUpper = TestType.builder().referenceHigh(new BigDecimal("10")).build();
+
+        assertEquals(ResultFlag.NORMAL, evaluator.evaluate(onlyUpper, new BigDecimal("-100")));
+        assertEquals(ResultFlag.HIGH, evaluator.evaluate(onlyUpper, new BigDecimal("10.01")));
+        assertFalse(ResultFlag.HIGH.isCritical());
+    }
+
+    @Test
+    void evaluate_ShouldReturnNull_WhenNoNumericValue() {
+        assertNull(evaluator.evaluate(potassium, null));
+    }
+}
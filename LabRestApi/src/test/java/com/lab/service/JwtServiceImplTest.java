@@ -0,0 +1,59 @@
+package com.lab.service;
+
+import com.lab.entity.Role;
+import com.lab.entity.User;
+import com.lab.service.impl.JwtServiceImpl;
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+public class JwtServiceImplTest {
+
+    private JwtServiceImpl jwtService;
+
+    private final User user = User.builder()
+            .id(1L)
+            .username("user")
+            .email("user@lab.com")
+            .role(Role.ROLE_USER)
+            .build();
+
+    @BeforeEach
+    void setUp() {
+        jwtService = new JwtServiceImpl();
+        ReflectionTestUtils.setField(jwtService, "jwtSigningKey",
+                "MDEyMzQ1Njc4OWFiY2RlZjAxMjM0NTY3ODlhYmNkZWYwMTIzNDU2Nzg5YWJjZGVm");
+        ReflectionTestUtils.invokeMethod(jwtService, "init");
+    }
+
+    @Test
+    void getSigningKey_ShouldReturnSameInstance() {
+        assertSame(jwtService.getSigningKey(), jwtService.getSigningKey());
+    }
+
+    @Test
+    void extractAllClaims_ShouldReturnClaims_ForGeneratedToken() {
+        String token = jwtService.generateToken(user);
+
+        Claims claims = jwtService.extractAllClaims(token);
+
+        assertEquals("user", claims.getSubject());
+        assertEquals("user@lab.com", claims.get("email"));
+        assertTrue(jwtService.isTokenValid(token, user));
+    }
+
+    @Test
+    void extractUser_ShouldBuildUserFromClaims_WithoutRepository() {
+        Claims claims = jwtService.extractAllClaims(jwtService.generateToken(user));
+
+        User principal = jwtService.extractUser(claims).orElseThrow();
+
+        assertEquals(1L, principal.getId());
+        assertEquals("user", principal.getUsername());
+        assertEquals(Role.ROLE_USER, principal.getRole());
+    }
+}
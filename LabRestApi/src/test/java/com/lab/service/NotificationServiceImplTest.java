@@ -0,0 +1,252 @@
+package com.lab.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lab.dto.request.NotificationRequestDTO;
+import com.lab.dto.response.NotificationBatchErrorDTO;
+import com.lab.dto.response.NotificationBatchResponseDTO;
+import com.lab.entity.NotificationOutbox;
+import com.lab.entity.OutboxStatus;
+import com.lab.entity.Status;
+import com.lab.mapper.impl.NotificationMapperImpl;
+import com.lab.repository.NotificationOutboxRepository;
+import com.lab.repository.NotificationRepository;
+import com.lab.service.impl.NotificationServiceImpl;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+
+@ExtendWith(MockitoExtension.class)
+public class NotificationServiceImplTest {
+
+    @Mock
+    private RestTemplate restTemplate;
+
+    @Mock
+    private NotificationOutboxRepository notificationOutboxRepository;
+
+    @Mock
+    private NotificationRepository notificationRepository;
+
+    @Spy
+    private NotificationMapperImpl notificationMapper;
+
+    @Spy
+    private ObjectMapper objectMapper;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @InjectMocks
+    private NotificationServiceImpl notificationService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(notificationService, "notificationServiceUrl", "http://localhost/notifications");
+        ReflectionTestUtils.setField(notificationService, "batchSize", 100);
+        ReflectionTestUtils.setField(notificationService, "maxAttempts", 3);
+        ReflectionTestUtils.setField(notificationService, "initialBackoff", Duration.ofSeconds(1));
+        ReflectionTestUtils.setField(notificationService, "maxBackoff", Duration.ofMinutes(10));
+        ReflectionTestUtils.setField(notificationService, "ingestChunkSize", 2);
+        ReflectionTestUtils.setField(notificationService, "lease", Duration.ofMinutes(15));
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        lenient().doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    private NotificationOutbox outbox(int attempts) {
+        return NotificationOutbox.builder()
+                .id(1L)
+                .orderId(10L)
+                .message("Статус заявки 10 изменён на COMPLETED")
+                .status(OutboxStatus.PENDING)
+                .attempts(attempts)
+                .createdAt(LocalDateTime.now())
+                .nextAttemptAt(LocalDateTime.now())
+                .build();
+    }
+
+    @Test
+    void notifyOrderStatusChanged_ShouldSaveToOutbox_WithoutCallingRemoteService() {
+        notificationService.notifyOrderStatusChanged(10L, "Статус заявки 10 изменён на COMPLETED");
+
+        ArgumentCaptor<NotificationOutbox> captor = ArgumentCaptor.forClass(NotificationOutbox.class);
+        verify(notificationOutboxRepository).save(captor.capture());
+        assertEquals(10L, captor.getValue().getOrderId());
+        assertEquals(OutboxStatus.PENDING, captor.getValue().getStatus());
+        verifyNoInteractions(restTemplate);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void notifyOrderStatusesChanged_ShouldSaveAllOutboxRecords_InOneCall() {
+        notificationService.notifyOrderStatusesChanged(List.of(10L, 11L), Status.COMPLETED);
+
+        ArgumentCaptor<List<NotificationOutbox>> captor = ArgumentCaptor.forClass(List.class);
+        verify(notificationOutboxRepository).saveAll(captor.capture());
+        assertEquals(List.of(10L, 11L), captor.getValue().stream().map(NotificationOutbox::getOrderId).toList());
+        assertEquals("Статус заявки 11 изменён на COMPLETED", captor.getValue().get(1).getMessage());
+        verify(notificationOutboxRepository, never()).save(any());
+    }
+
+    @Test
+    void dispatchPendingNotifications_ShouldDeleteSent_WhenRemoteServiceResponds() {
+        NotificationOutbox outbox = outbox(0);
+        when(notificationOutboxRepository.claimBatchForDispatch(any(LocalDateTime.class), any(LocalDateTime.class), eq(100)))
+                .thenReturn(List.of(outbox));
+
+        notificationService.dispatchPendingNotifications();
+
+        verify(restTemplate).postForEntity(anyString(), any(NotificationRequestDTO.class), eq(Void.class));
+        verify(notificationOutboxRepository).deleteAllInBatch(List.of(outbox));
+    }
+
+    @Test
+    void dispatchPendingNotifications_ShouldScheduleRetry_WhenRemoteServiceFails() {
+        NotificationOutbox outbox = outbox(1);
+        LocalDateTime before = LocalDateTime.now();
+        when(notificationOutboxRepository.claimBatchForDispatch(any(LocalDateTime.class), any(LocalDateTime.class), eq(100)))
+                .thenReturn(List.of(outbox));
+        when(restTemplate.postForEntity(anyString(), any(NotificationRequestDTO.class), eq(Void.class)))
+                .thenThrow(new ResourceAccessException("timeout"));
+
+        notificationService.dispatchPendingNotifications();
+
+        assertEquals(2, outbox.getAttempts());
+        assertEquals(OutboxStatus.PENDING, outbox.getStatus());
+        assertFalse(outbox.getNextAttemptAt().isBefore(before.plusSeconds(2)));
+        verify(notificationOutboxRepository).deleteAllInBatch(List.of());
+        verify(notificationOutboxRepository).saveAll(List.of(outbox));
+    }
+
+    @Test
+    void dispatchPendingNotifications_ShouldSendOutsideTransactions() {
+        NotificationOutbox outbox = outbox(0);
+        when(notificationOutboxRepository.claimBatchForDispatch(any(LocalDateTime.class), any(LocalDateTime.class), eq(100)))
+                .thenReturn(List.of(outbox));
+        when(restTemplate.postForEntity(anyString(), any(NotificationRequestDTO.class), eq(Void.class)))
+                .thenAnswer(invocation -> {
+                    // Захват уже зафиксирован, итог еще не записывается
+                    verify(transactionTemplate).execute(any());
+                    verify(transactionTemplate, never()).executeWithoutResult(any());
+                    return null;
+                });
+
+        notificationService.dispatchPendingNotifications();
+
+        ArgumentCaptor<LocalDateTime> now = ArgumentCaptor.forClass(LocalDateTime.class);
+        ArgumentCaptor<LocalDateTime> leaseUntil = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(notificationOutboxRepository).claimBatchForDispatch(now.capture(), leaseUntil.capture(), eq(100));
+        assertEquals(Duration.ofMinutes(15), Duration.between(now.getValue(), leaseUntil.getValue()));
+        verify(transactionTemplate).executeWithoutResult(any());
+    }
+
+    @Test
+    void dispatchPendingNotifications_ShouldMarkFailed_WhenAttemptsExhausted() {
+        NotificationOutbox outbox = outbox(2);
+        when(notificationOutboxRepository.claimBatchForDispatch(any(LocalDateTime.class), any(LocalDateTime.class), eq(100)))
+                .thenReturn(List.of(outbox));
+        when(restTemplate.postForEntity(anyString(), any(NotificationRequestDTO.class), eq(Void.class)))
+                .thenThrow(new ResourceAccessException("timeout"));
+
+        notificationService.dispatchPendingNotifications();
+
+        assertEquals(3, outbox.getAttempts());
+        assertEquals(OutboxStatus.FAILED, outbox.getStatus());
+    }
+
+    @Test
+    void saveNotifications_ShouldFlushAndClearPerChunk() {
+        List<NotificationRequestDTO> requests = List.of(
+                new NotificationRequestDTO(1L, "a"),
+                new NotificationRequestDTO(2L, "b"),
+                new NotificationRequestDTO(3L, "c")
+        );
+
+        NotificationBatchResponseDTO response = notificationService.saveNotifications(requests);
+
+        assertEquals(3, response.getSaved());
+        assertEquals(0, response.getSkipped());
+        verify(notificationRepository, times(2)).saveAll(anyList());
+        verify(entityManager, times(2)).flush();
+        verify(entityManager, times(2)).clear();
+    }
+
+    @Test
+    void saveNotifications_ShouldSkipInvalidItems_AndSaveTheRest() {
+        List<NotificationRequestDTO> requests = new ArrayList<>();
+        requests.add(new NotificationRequestDTO(1L, "a"));
+        requests.add(null);
+        requests.add(new NotificationRequestDTO(null, "b"));
+
+        NotificationBatchResponseDTO response = notificationService.saveNotifications(requests);
+
+        assertEquals(1, response.getSaved());
+        assertEquals(2, response.getSkipped());
+        assertEquals(List.of(1, 2), response.getErrors().stream().map(NotificationBatchErrorDTO::getIndex).toList());
+        assertEquals("пустой элемент", response.getErrors().get(0).getError());
+        verify(notificationRepository).saveAll(anyList());
+        verify(entityManager).flush();
+    }
+
+    @Test
+    void saveNotifications_ShouldSkipInvalidLines_InNdjsonStream() throws Exception {
+        String ndjson = "{\"orderId\":1,\"message\":\"a\"}\n{\"message\":\"b\"}\n";
+
+        NotificationBatchResponseDTO response = notificationService.saveNotifications(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(1, response.getSaved());
+        assertEquals(1, response.getSkipped());
+        assertEquals(1, response.getErrors().get(0).getIndex());
+        verify(notificationRepository).saveAll(anyList());
+    }
+
+    @Test
+    void saveNotifications_ShouldReadNdjsonStream() throws Exception {
+        String ndjson = "{\"orderId\":1,\"message\":\"a\"}\n{\"orderId\":2,\"message\":\"b\"}\n";
+
+        NotificationBatchResponseDTO response = notificationService.saveNotifications(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(2, response.getSaved());
+        assertEquals(0, response.getSkipped());
+        verify(notificationRepository).saveAll(anyList());
+        verify(entityManager).flush();
+    }
+}
@@ -1,9 +1,12 @@
 package com.lab.service;
 
+import com.lab.cache.impl.CacheServiceImpl;
 import com.lab.dto.request.OrderRequestDTO;
 import com.lab.dto.response.OrderResponseDTO;
+import com.lab.dto.response.OrderStatusUpdateResponseDTO;
 import com.lab.dto.response.TestResponseDTO;
 import com.lab.entity.*;
+import com.lab.exception.InvalidStatusTransitionException;
 import com.lab.exception.OrderNotFoundException;
 import com.lab.exception.PatientNotFoundException;
 import com.lab.mapper.OrderMapper;
@@ -11,6 +14,7 @@ import com.lab.mapper.impl.TestMapperImpl;
 import com.lab.repository.OrderRepository;
 import com.lab.repository.PatientRepository;
 import com.lab.repository.TestRepository;
+import com.lab.service.impl.NotificationServiceImpl;
 import com.lab.service.impl.OrderServiceImpl;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -25,7 +29,9 @@ import static org.junit.jupiter.api.Assertions.*;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 
 @ExtendWith(MockitoExtension.class)
@@ -46,6 +52,12 @@ public class OrderServiceImplTest {
     @Mock
     private TestMapperImpl testMapper;
 
+    @Mock
+    private CacheServiceImpl cacheServiceImpl;
+
+    @Mock
+    private NotificationServiceImpl notificationServiceImpl;
+
     @InjectMocks
     private OrderServiceImpl orderService;
 
@@ -73,7 +85,10 @@ public class OrderServiceImplTest {
             LocalDateTime.now(),
             "Результат",
             "Референсные значения",
-            TestStatus.COMPLETED
+            TestStatus.COMPLETED,
+            null,
+            null,
+            null
     );
 
     private final OrderRequestDTO orderRequestDTO = new OrderRequestDTO(
@@ -95,25 +110,27 @@ public class OrderServiceImplTest {
             LocalDateTime.now(),
             "Результат",
             "Референсные значения",
-            TestStatus.COMPLETED);
+            TestStatus.COMPLETED,
+            null,
+            null,
+            null);
 
 
     @Test
      void getAllOrders_ShouldReturnOrders_WhenOrdersExist() {
-        Page<Order> page = new PageImpl<>(List.of(order));
-        when(orderRepository.findAll(any(Pageable.class))).thenReturn(page);
-        when(orderMapper.toResponseDTOList(anyList())).thenReturn(List.of(orderResponseDTO));
+        Page<OrderResponseDTO> page = new PageImpl<>(List.of(orderResponseDTO));
+        when(orderRepository.findAllProjected(any(Pageable.class))).thenReturn(page);
 
         Page<OrderResponseDTO> result = orderService.getAllOrders(Pageable.unpaged());
 
         assertFalse(result.isEmpty());
         assertEquals(1, result.getTotalElements());
-        verify(orderRepository).findAll(any(Pageable.class));
+        verify(orderRepository).findAllProjected(any(Pageable.class));
     }
 
     @Test
     void getAllOrders_ShouldThrowException_WhenNoOrdersFound() {
-        when(orderRepository.findAll(any(Pageable.class))).thenReturn(Page.empty());
+        when(orderRepository.findAllProjected(any(Pageable.class))).thenReturn(Page.empty());
 
         assertThrows(OrderNotFoundException.class, () ->
                 orderService.getAllOrders(Pageable.unpaged()));
@@ -161,7 +178,7 @@ public class OrderServiceImplTest {
 
     @Test
     void updateOrderStatus_ShouldUpdateStatus_WhenOrderExists() {
-        when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+        when(orderRepository.findForUpdateById(1L)).thenReturn(Optional.of(order));
         when(orderRepository.save(any(Order.class))).thenReturn(order);
         when(orderMapper.toResponseDTO(any(Order.class))).thenReturn(orderResponseDTO);
 
@@ -172,6 +189,111 @@ public class OrderServiceImplTest {
         assertEquals(Status.IN_PROGRESS, order.getStatus());
     }
 
+    @Test
+    void updateOrderStatus_ShouldThrowConflict_WhenTransitionNotAllowed() {
+        order.setStatus(Status.CANCELED);
+        when(orderRepository.findForUpdateById(1L)).thenReturn(Optional.of(order));
+
+        assertThrows(InvalidStatusTransitionException.class, () ->
+                orderService.updateOrderStatus(1L, Status.IN_PROGRESS));
+        verify(orderRepository, never()).save(any());
+        verifyNoInteractions(notificationServiceImpl);
+    }
+
+    @Test
+    void updateOrderStatus_ShouldThrowConflict_WhenCurrentStatusUnknown() {
+        order.setStatus(null);
+        when(orderRepository.findForUpdateById(1L)).thenReturn(Optional.of(order));
+
+        assertThrows(InvalidStatusTransitionException.class, () ->
+                orderService.updateOrderStatus(1L, Status.COMPLETED));
+        verify(orderRepository, never()).save(any());
+    }
+
+    @Test
+    void status_ShouldAllowOnlyForwardTransitions() {
+        assertTrue(Status.REGISTERED.canTransitionTo(Status.IN_PROGRESS));
+        assertTrue(Status.IN_PROGRESS.canTransitionTo(Status.COMPLETED));
+        assertTrue(Status.REGISTERED.canTransitionTo(Status.CANCELED));
+        assertFalse(Status.CANCELED.canTransitionTo(Status.IN_PROGRESS));
+        assertFalse(Status.COMPLETED.canTransitionTo(Status.CANCELED));
+        assertFalse(Status.IN_PROGRESS.canTransitionTo(Status.REGISTERED));
+    }
+
+    @Test
+    void updateOrderStatuses_ShouldUpdateInOneQuery_AndReportSkippedIds() {
+        when(orderRepository.updateStatusReturningIds(anyCollection(), eq("COMPLETED"), anyCollection()))
+                .thenReturn(List.of(1L, 3L));
+
+        OrderStatusUpdateResponseDTO result = orderService.updateOrderStatuses(List.of(1L, 2L, 3L, 2L), Status.COMPLETED);
+
+        assertEquals(List.of(1L, 3L), result.getUpdatedIds());
+        assertEquals(List.of(2L), result.getSkippedIds());
+        verify(orderRepository).updateStatusReturningIds(
+                eq(Set.of(1L, 2L, 3L)), eq("COMPLETED"), argThat(sources ->
+                        sources.size() == 2 && sources.containsAll(List.of("REGISTERED", "IN_PROGRESS"))));
+        verify(cacheServiceImpl).evictOrderCachesByIds(List.of(1L, 3L));
+        verify(notificationServiceImpl).notifyOrderStatusesChanged(List.of(1L, 3L), Status.COMPLETED);
+    }
+
+    @Test
+    void updateOrderStatuses_ShouldThrowConflict_WhenTargetHasNoSourceStatuses() {
+        assertThrows(InvalidStatusTransitionException.class, () ->
+                orderService.updateOrderStatuses(List.of(1L), Status.REGISTERED));
+        verifyNoInteractions(orderRepository);
+    }
+
+    @Test
+    void applyPendingTestChanges_ShouldCompleteOrder_WhenLastPendingTestCompleted() {
+        when(orderRepository.completeOrdersWithoutPendingTests(List.of(1L))).thenReturn(List.of(1L));
+
+        orderService.applyPendingTestChanges(Map.of(1L, -1));
+
+        verify(orderRepository).addPendingTests(1L, -1);
+        verify(cacheServiceImpl).evictOrderCachesByIds(List.of(1L));
+        verify(notificationServiceImpl).notifyOrderStatusesChanged(List.of(1L), Status.COMPLETED);
+    }
+
+    @Test
+    void applyPendingTestChanges_ShouldNotCheckCompletion_WhenPendingTestsAdded() {
+        when(orderRepository.addPendingTests(1L, 2)).thenReturn(1);
+
+        orderService.applyPendingTestChanges(Map.of(1L, 2));
+
+        verify(orderRepository).addPendingTests(1L, 2);
+        verify(orderRepository, never()).completeOrdersWithoutPendingTests(anyCollection());
+        verifyNoInteractions(notificationServiceImpl);
+    }
+
+    @Test
+    void applyPendingTestChanges_ShouldNotCompleteOrder_WhenCompletedTestsAdded() {
+        orderService.applyPendingTestChanges(Map.of(1L, 0));
+
+        verify(orderRepository, never()).addPendingTests(anyLong(), anyInt());
+        verify(orderRepository, never()).completeOrdersWithoutPendingTests(anyCollection());
+        verifyNoInteractions(notificationServiceImpl);
+    }
+
+    @Test
+    void applyPendingTestChanges_ShouldThrowConflict_WhenPendingTestAddedToCompletedOrder() {
+        when(orderRepository.addPendingTests(1L, 1)).thenReturn(0);
+
+        assertThrows(InvalidStatusTransitionException.class, () ->
+                orderService.applyPendingTestChanges(Map.of(1L, 1)));
+        verify(orderRepository, never()).completeOrdersWithoutPendingTests(anyCollection());
+    }
+
+    @Test
+    void recountPendingTests_ShouldCompleteOrders_WithoutPendingTestsLeft() {
+        when(orderRepository.completeOrdersWithoutPendingTests(List.of(1L, 2L))).thenReturn(List.of(2L));
+
+        orderService.recountPendingTests(List.of(1L, 2L));
+
+        verify(orderRepository).recountPendingTests(List.of(1L, 2L));
+        verify(cacheServiceImpl).evictOrderCachesByIds(List.of(2L));
+        verify(notificationServiceImpl).notifyOrderStatusesChanged(List.of(2L), Status.COMPLETED);
+    }
+
     @Test
     void getOrdersByPatientId_ShouldReturnOrders_WhenPatientAndOrdersExist() {
         when(patientRepository.existsById(1L)).thenReturn(true);
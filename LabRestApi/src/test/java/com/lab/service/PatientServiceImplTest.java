@@ -1,5 +1,6 @@
 package com.lab.service;
 
+import com.lab.cache.impl.CacheServiceImpl;
 import com.lab.dto.request.PatientRequestDTO;
 import com.lab.dto.response.OrderResponseDTO;
 import com.lab.dto.response.PatientResponseDTO;
@@ -43,6 +44,9 @@ public class PatientServiceImplTest {
     @Mock
     private OrderMapper orderMapper;
 
+    @Mock
+    private CacheServiceImpl cacheServiceImpl;
+
     @InjectMocks
     private PatientServiceImpl patientService;
 
@@ -96,20 +100,19 @@ public class PatientServiceImplTest {
 
     @Test
     void getAllPatients_ShouldReturnPatients_WhenPatientsExist() {
-        Page<Patient> page = new PageImpl<>(List.of(patient));
-        when(patientRepository.findAll(any(Pageable.class))).thenReturn(page);
-        when(patientMapper.toResponseDTOList(anyList())).thenReturn(List.of(patientResponseDTO));
+        Page<PatientResponseDTO> page = new PageImpl<>(List.of(patientResponseDTO));
+        when(patientRepository.findAllProjected(any(Pageable.class))).thenReturn(page);
 
         Page<PatientResponseDTO> result = patientService.getAllPatients(Pageable.unpaged());
 
         assertFalse(result.isEmpty());
         assertEquals(1, result.getTotalElements());
-        verify(patientRepository).findAll(any(Pageable.class));
+        verify(patientRepository).findAllProjected(any(Pageable.class));
     }
 
     @Test
     void getAllPatients_ShouldThrowException_WhenNoPatientsFound() {
-        when(patientRepository.findAll(any(Pageable.class))).thenReturn(Page.empty());
+        when(patientRepository.findAllProjected(any(Pageable.class))).thenReturn(Page.empty());
 
         assertThrows(PatientNotFoundException.class, () ->
                 patientService.getAllPatients(Pageable.unpaged()));
@@ -126,6 +129,7 @@ public class PatientServiceImplTest {
         assertNotNull(result);
         assertEquals("Иван", result.getFirstName());
         verify(patientRepository).save(any(Patient.class));
+        verify(cacheServiceImpl).evictPatientCaches(patient);
     }
 
     @Test
@@ -138,6 +142,7 @@ public class PatientServiceImplTest {
 
         assertNotNull(result);
         verify(patientRepository).save(patient);
+        verify(cacheServiceImpl, times(2)).evictPatientCaches(patient);
     }
 
     @Test
@@ -0,0 +1,96 @@
+package com.lab.service;
+
+import com.lab.entity.Status;
+import com.lab.entity.TestStatus;
+import com.lab.exception.OrderNotFoundException;
+import com.lab.exception.TestNotFoundException;
+import com.lab.pdf.PdfFonts;
+import com.lab.pdf.PdfReportAssembler;
+import com.lab.pdf.TestReport;
+import com.lab.pdf.TestReportRenderer;
+import com.lab.repository.OrderRepository;
+import com.lab.repository.TestRepository;
+import com.lab.service.impl.ReportServiceImpl;
+import com.lowagie.text.pdf.PdfReader;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+
+@ExtendWith(MockitoExtension.class)
+public class ReportServiceImplTest {
+
+    @Mock
+    private TestRepository testRepository;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    private ReportServiceImpl reportService;
+
+    @BeforeEach
+    void setUp() {
+        PdfReportAssembler assembler = new PdfReportAssembler(new TestReportRenderer(new PdfFonts()), 2, 2);
+        reportService = new ReportServiceImpl(testRepository, orderRepository, assembler);
+    }
+
+    private static TestReport report(long testId, long orderId) {
+        return new TestReport(testId, orderId, "Иванов", "Иван", LocalDateTime.now(), Status.COMPLETED,
+                "Комментарий", "Анализ крови", LocalDateTime.now(), "Результат", "Норма", TestStatus.COMPLETED);
+    }
+
+    @Test
+    void getOrderReport_ShouldThrowOrderNotFound_WhenOrderMissing() {
+        when(testRepository.findReportsByOrderId(1L)).thenReturn(List.of());
+        when(orderRepository.existsById(1L)).thenReturn(false);
+
+        assertThrows(OrderNotFoundException.class, () -> reportService.getOrderReport(1L));
+    }
+
+    @Test
+    void getOrderReport_ShouldThrowTestNotFound_WhenOrderHasNoTests() {
+        when(testRepository.findReportsByOrderId(1L)).thenReturn(List.of());
+        when(orderRepository.existsById(1L)).thenReturn(true);
+
+        assertThrows(TestNotFoundException.class, () -> reportService.getOrderReport(1L));
+    }
+
+    @Test
+    void getDailyReport_ShouldQueryWholeDay() {
+        LocalDate day = LocalDate.of(2025, 3, 1);
+        when(testRepository.findReportsByOrderCreatedBetween(day.atStartOfDay(), day.plusDays(1).atStartOfDay()))
+                .thenReturn(List.of(report(1L, 1L)));
+
+        assertEquals(1, reportService.getDailyReport(day).size());
+    }
+
+    @Test
+    void writeReportPdf_ShouldMergePartsInOrder_WithPagePerOrder() throws Exception {
+        List<TestReport> reports = new ArrayList<>();
+        for (long orderId = 1; orderId <= 5; orderId++) {
+            reports.add(report(orderId * 10, orderId));
+            reports.add(report(orderId * 10 + 1, orderId));
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        reportService.writeReportPdf(reports, out);
+
+        PdfReader reader = new PdfReader(out.toByteArray());
+        try {
+            assertEquals(5, reader.getNumberOfPages());
+        } finally {
+            reader.close();
+        }
+    }
+}
@@ -1,31 +1,69 @@
 package com.lab.service;
 
+import com.lab.cache.TestTypeCatalog;
+import com.lab.cache.impl.CacheServiceImpl;
 import com.lab.dto.request.TestRequestDTO;
+import com.lab.dto.request.TestResultRequestDTO;
+import com.lab.dto.response.TestBatchItemDTO;
 import com.lab.dto.response.TestResponseDTO;
 import com.lab.entity.*;
+import com.lab.exception.BatchTooLargeException;
+import com.lab.exception.InvalidTestResultException;
 import com.lab.exception.OrderNotFoundException;
 import com.lab.exception.TestNotFoundException;
 import com.lab.exception.TestTypeNotFoundException;
 import com.lab.mapper.impl.TestMapperImpl;
+import com.lab.pdf.PdfFonts;
+import com.lab.pdf.PdfReportCache;
+import com.lab.pdf.TestReport;
+import com.lab.pdf.TestReportRenderer;
 import com.lab.repository.OrderRepository;
 import com.lab.repository.TestRepository;
-import com.lab.repository.TestTypeRepository;
+import com.lab.result.ReferenceRangeEvaluator;
+import com.lab.result.impl.ReferenceRangeEvaluatorImpl;
+import com.lab.service.impl.OrderServiceImpl;
 import com.lab.service.impl.TestServiceImpl;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.junit.jupiter.api.Test;
 import static org.mockito.Mockito.*;
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.io.ByteArrayOutputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 
 @ExtendWith(MockitoExtension.class)
@@ -38,14 +76,40 @@ public class TestServiceImplTest {
     private OrderRepository orderRepository;
 
     @Mock
-    private TestTypeRepository testTypeRepository;
+    private TestTypeCatalog testTypeCatalog;
 
     @Mock
     private TestMapperImpl testMapper;
 
+    @Mock
+    private CacheServiceImpl cacheServiceImpl;
+
+    @Mock
+    private PdfReportCache pdfReportCache;
+
+    @Mock
+    private OrderServiceImpl orderServiceImpl;
+
+    @Spy
+    private TestReportRenderer testReportRenderer = new TestReportRenderer(new PdfFonts());
+
+    @Mock
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Spy
+    private ReferenceRangeEvaluator referenceRangeEvaluator = new ReferenceRangeEvaluatorImpl();
+
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
     @InjectMocks
     private TestServiceImpl testService;
 
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(testService, "maxBatchSize", 3);
+    }
+
     private final Order order = new Order(
             1L,
             new Patient(),
@@ -59,7 +123,12 @@ public class TestServiceImplTest {
             "name",
             "CODE1",
             "Анализ крови",
-            new BigDecimal("30.00")
+            new BigDecimal("30.00"),
+            null,
+            null,
+            null,
+            null,
+            null
     );
 
     private final com.lab.entity.Test test = new com.lab.entity.Test(
@@ -69,7 +138,10 @@ public class TestServiceImplTest {
             LocalDateTime.now(),
             "Результат",
             "Референсные значения",
-            TestStatus.COMPLETED
+            TestStatus.COMPLETED,
+            null,
+            null,
+            null
     );
 
     private final TestRequestDTO testRequestDTO = new TestRequestDTO(
@@ -77,7 +149,8 @@ public class TestServiceImplTest {
             testType.getId(),
             "Результат",
             "Референсные значения",
-            TestStatus.COMPLETED
+            TestStatus.COMPLETED,
+            null
     );
 
     private final TestResponseDTO testResponseDTO = new TestResponseDTO(
@@ -87,30 +160,50 @@ public class TestServiceImplTest {
             LocalDateTime.now(),
             "Результат",
             "Референсные значения",
-            TestStatus.COMPLETED
+            TestStatus.COMPLETED,
+            null,
+            null,
+            null
     );
 
     @Test
     void getAllTests_ShouldReturnTests_WhenTestsExist() {
-        Page<com.lab.entity.Test> page = new PageImpl<>(List.of(test));
-        when(testRepository.findAll(any(Pageable.class))).thenReturn(page);
-        when(testMapper.toResponseDTOList(anyList())).thenReturn(List.of(testResponseDTO));
+        Page<TestResponseDTO> page = new PageImpl<>(List.of(testResponseDTO));
+        when(testRepository.findAllProjected(any(Pageable.class))).thenReturn(page);
 
         Page<TestResponseDTO> result = testService.getAllTests(Pageable.unpaged());
 
         assertFalse(result.isEmpty());
         assertEquals(1, result.getTotalElements());
-        verify(testRepository).findAll(any(Pageable.class));
+        verify(testRepository).findAllProjected(any(Pageable.class));
     }
 
     @Test
     void getAllTests_ShouldThrowException_WhenNoTestsFound() {
-        when(testRepository.findAll(any(Pageable.class))).thenReturn(Page.empty());
+        when(testRepository.findAllProjected(any(Pageable.class))).thenReturn(Page.empty());
 
         assertThrows(TestNotFoundException.class, () ->
                 testService.getAllTests(Pageable.unpaged()));
     }
 
+    @Test
+    void getTestsAfter_ShouldReturnSliceWithoutCount() {
+        Slice<TestResponseDTO> slice = new SliceImpl<>(List.of(testResponseDTO), Pageable.ofSize(1), true);
+        when(testRepository.findAllProjectedAfter(eq(10L), any(Pageable.class))).thenReturn(slice);
+
+        Slice<TestResponseDTO> result = testService.getTestsAfter(10L, 1);
+
+        assertTrue(result.hasNext());
+        verify(testRepository, never()).count();
+    }
+
+    @Test
+    void getTestsAfter_ShouldThrowException_WhenFirstPageEmpty() {
+        when(testRepository.findAllProjectedAfter(eq(0L), any(Pageable.class))).thenReturn(new SliceImpl<>(List.of()));
+
+        assertThrows(TestNotFoundException.class, () -> testService.getTestsAfter(0L, 50));
+    }
+
     @Test
     void getTestById_ShouldReturnTest_WhenTestExists() {
         when(testRepository.findById(1L)).thenReturn(Optional.of(test));
@@ -128,12 +221,22 @@ public class TestServiceImplTest {
 
         assertThrows(TestNotFoundException.class, () ->
                 testService.getTestById(1L));
+        verify(cacheServiceImpl).markMissing("tests", 1L);
+    }
+
+    @Test
+    void getTestById_ShouldSkipRepository_WhenIdKnownMissing() {
+        when(cacheServiceImpl.isKnownMissing("tests", 1L)).thenReturn(true);
+
+        assertThrows(TestNotFoundException.class, () ->
+                testService.getTestById(1L));
+        verifyNoInteractions(testRepository);
     }
 
     @Test
     void createTest_ShouldCreateTest_WhenOrderAndTestTypeExist() {
         when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
-        when(testTypeRepository.findById(1L)).thenReturn(Optional.of(testType));
+        when(testTypeCatalog.findById(1L)).thenReturn(Optional.of(testType));
         when(testMapper.toEntity(any(TestRequestDTO.class), any(Order.class), any(TestType.class))).thenReturn(test);
         when(testRepository.save(any(com.lab.entity.Test.class))).thenReturn(test);
         when(testMapper.toResponseDTO(any(com.lab.entity.Test.class))).thenReturn(testResponseDTO);
@@ -145,6 +248,62 @@ public class TestServiceImplTest {
         verify(testRepository).save(any(com.lab.entity.Test.class));
     }
 
+    @Test
+    void updateTest_ShouldStoreNumericValueWithFlag_FromTestTypeBounds() {
+        TestType glucose = TestType.builder()
+                .id(1L)
+                .name("Глюкоза")
+                .unit("ммоль/л")
+                .referenceLow(new BigDecimal("3.5"))
+                .referenceHigh(new BigDecimal("5.5"))
+                .criticalLow(new BigDecimal("2.2"))
+                .criticalHigh(new BigDecimal("25"))
+                .build();
+        TestRequestDTO request = new TestRequestDTO(1L, 1L, "Гипергликемия", "3.5-5.5",
+                TestStatus.COMPLETED, new BigDecimal("27.1"));
+        when(testRepository.findForUpdateById(1L)).thenReturn(Optional.of(test));
+        when(testTypeCatalog.findById(1L)).thenReturn(Optional.of(glucose));
+        when(testRepository.save(test)).thenReturn(test);
+
+        testService.updateTest(1L, request);
+
+        assertEquals(new BigDecimal("27.1"), test.getNumericValue());
+        assertEquals("ммоль/л", test.getUnit());
+        assertEquals(ResultFlag.CRITICAL_HIGH, test.getFlag());
+    }
+
+    @Test
+    void updateTest_ShouldDecrementPendingTests_WhenTestCompleted() {
+        test.setStatus(TestStatus.PENDING);
+        when(testRepository.findForUpdateById(1L)).thenReturn(Optional.of(test));
+        when(testRepository.save(test)).thenReturn(test);
+
+        testService.updateTest(1L, testRequestDTO);
+
+        verify(orderServiceImpl).applyPendingTestChanges(Map.of(1L, -1));
+    }
+
+    @Test
+    void createTest_ShouldIncrementPendingTests_WhenTestPending() {
+        test.setStatus(TestStatus.PENDING);
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+        when(testTypeCatalog.findById(1L)).thenReturn(Optional.of(testType));
+        when(testMapper.toEntity(testRequestDTO, order, testType)).thenReturn(test);
+        when(testRepository.save(test)).thenReturn(test);
+
+        testService.createTest(testRequestDTO);
+
+        verify(orderServiceImpl).applyPendingTestChanges(Map.of(1L, 1));
+    }
+
+    @Test
+    void getCriticalTests_ShouldUseLimitAsPageSize() {
+        LocalDateTime since = LocalDateTime.now().minusHours(1);
+        when(testRepository.findCriticalSince(since, PageRequest.ofSize(100))).thenReturn(List.of(testResponseDTO));
+
+        assertEquals(List.of(testResponseDTO), testService.getCriticalTests(since, 100));
+    }
+
     @Test
     void createTest_ShouldThrowException_WhenOrderNotFound() {
         when(orderRepository.findById(1L)).thenReturn(Optional.empty());
@@ -156,7 +315,7 @@ public class TestServiceImplTest {
     @Test
     void createTest_ShouldThrowException_WhenTestTypeNotFound() {
         when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
-        when(testTypeRepository.findById(1L)).thenReturn(Optional.empty());
+        when(testTypeCatalog.findById(1L)).thenReturn(Optional.empty());
 
         assertThrows(TestTypeNotFoundException.class, () ->
                 testService.createTest(testRequestDTO));
@@ -164,7 +323,7 @@ public class TestServiceImplTest {
 
     @Test
     void updateTest_ShouldUpdateTest_WhenTestExists() {
-        when(testRepository.findById(1L)).thenReturn(Optional.of(test));
+        when(testRepository.findForUpdateById(1L)).thenReturn(Optional.of(test));
         when(testRepository.save(any(com.lab.entity.Test.class))).thenReturn(test);
         when(testMapper.toResponseDTO(any(com.lab.entity.Test.class))).thenReturn(testResponseDTO);
 
@@ -172,75 +331,238 @@ public class TestServiceImplTest {
 
         assertNotNull(result);
         verify(testRepository).save(test);
+        verify(cacheServiceImpl).evictTestCaches(test);
     }
 
     @Test
     void updateTest_ShouldThrowException_WhenTestNotFound() {
-        when(testRepository.findById(1L)).thenReturn(Optional.empty());
+        when(testRepository.findForUpdateById(1L)).thenReturn(Optional.empty());
 
         assertThrows(TestNotFoundException.class, () ->
                 testService.updateTest(1L, testRequestDTO));
     }
 
     @Test
-    void updateTestResult_ShouldUpdateResult_WhenTestExists() {
-        when(testRepository.findById(1L)).thenReturn(Optional.of(test));
-        when(testRepository.save(any(com.lab.entity.Test.class))).thenReturn(test);
-        when(testMapper.toResponseDTO(any(com.lab.entity.Test.class))).thenReturn(testResponseDTO);
+    void updateTestResult_ShouldAppendInDatabase_WithoutReadingTest() {
+        when(testRepository.appendResult(1L, "Новый результат")).thenReturn(1);
+        when(testRepository.findProjectedById(1L)).thenReturn(Optional.of(testResponseDTO));
 
         TestResponseDTO result = testService.updateTestResult(1L, "Новый результат");
 
-        assertNotNull(result);
-        verify(testRepository).save(test);
+        assertEquals(testResponseDTO, result);
+        verify(testRepository, never()).findById(any());
+        verify(testRepository, never()).save(any());
+        verify(cacheServiceImpl).evictTestCachesByIds(List.of(1L));
     }
 
     @Test
-    void updateTestResult_ShouldAppendResult_WhenResultExists() {
-        com.lab.entity.Test existingTest = new com.lab.entity.Test(
-                1L,
-                order,
-                testType,
-                LocalDateTime.now(),
-                "Старый результат",
-                "Референсные значения",
-                TestStatus.COMPLETED
-        );
+    void updateTestResult_ShouldIssueOneAppendPerCall_UnderConcurrency() throws Exception {
+        int threads = 8;
+        int callsPerThread = 50;
+        Queue<String> appended = new ConcurrentLinkedQueue<>();
+        when(testRepository.appendResult(eq(1L), anyString())).thenAnswer(invocation -> {
+            appended.add(invocation.getArgument(1));
+            return 1;
+        });
+        when(testRepository.findProjectedById(1L)).thenReturn(Optional.of(testResponseDTO));
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < callsPerThread; i++) {
+                    testService.updateTestResult(1L, thread + "-" + i);
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // Каждое добавление - отдельная атомарная команда, чтение-изменение-запись в Java отсутствует
+        assertEquals(threads * callsPerThread, new HashSet<>(appended).size());
+        verify(testRepository, never()).findById(any());
+        verify(testRepository, never()).save(any());
+    }
 
-        when(testRepository.findById(1L)).thenReturn(Optional.of(existingTest));
-        when(testRepository.save(any(com.lab.entity.Test.class))).thenReturn(existingTest);
-        when(testMapper.toResponseDTO(any(com.lab.entity.Test.class))).thenReturn(testResponseDTO);
+    @Test
+    void updateTestResult_ShouldRejectMissingResult_WithoutTouchingDatabase() {
+        assertThrows(InvalidTestResultException.class, () -> testService.updateTestResult(1L, null));
+        assertThrows(InvalidTestResultException.class, () -> testService.updateTestResult(1L, "  "));
+        verify(testRepository, never()).appendResult(any(), any());
+    }
 
-        testService.updateTestResult(1L, "Новый результат");
+    @Test
+    void updateTestResult_ShouldThrowException_WhenTestNotFound() {
+        when(testRepository.appendResult(1L, "Новый результат")).thenReturn(0);
 
-        assertEquals("Старый результат, Новый результат", existingTest.getResult());
+        assertThrows(TestNotFoundException.class, () ->
+                testService.updateTestResult(1L, "Новый результат"));
     }
 
     @Test
-    void updateTestResult_ShouldSetResult_WhenNoResultExists() {
-        com.lab.entity.Test emptyResultTest = new com.lab.entity.Test(
-                1L,
-                order,
-                testType,
-                LocalDateTime.now(),
-                null,
-                "Референсные значения",
-                TestStatus.COMPLETED
-        );
-
-        when(testRepository.findById(1L)).thenReturn(Optional.of(emptyResultTest));
-        when(testRepository.save(any(com.lab.entity.Test.class))).thenReturn(emptyResultTest);
-        when(testMapper.toResponseDTO(any(com.lab.entity.Test.class))).thenReturn(testResponseDTO);
+    void writeTestPdf_ShouldStreamPdf_WithoutClosingOutput() throws Exception {
+        when(testRepository.findById(1L)).thenReturn(Optional.of(test));
+        when(testTypeCatalog.findById(1L)).thenReturn(Optional.of(testType));
+        ByteArrayOutputStream out = spy(new ByteArrayOutputStream());
 
-        testService.updateTestResult(1L, "Новый результат");
+        TestReport report = testService.getTestReport(1L);
+        testService.writeTestPdf(report, out);
 
-        assertEquals("Новый результат", emptyResultTest.getResult());
+        assertEquals("name", report.testTypeName());
+        assertTrue(out.toString(StandardCharsets.ISO_8859_1).startsWith("%PDF"));
+        verify(out, never()).close();
     }
 
     @Test
-    void updateTestResult_ShouldThrowException_WhenTestNotFound() {
+    void getTestReport_ShouldThrowException_WhenTestNotFound() {
         when(testRepository.findById(1L)).thenReturn(Optional.empty());
 
-        assertThrows(TestNotFoundException.class, () ->
-                testService.updateTestResult(1L, "Новый результат"));
+        assertThrows(TestNotFoundException.class, () -> testService.getTestReport(1L));
+        verifyNoInteractions(testReportRenderer);
+    }
+
+    @Test
+    void getCachedTestPdf_ShouldSkipCache_WhenTestNotCompleted() {
+        TestReport report = new TestReport(1L, 1L, "Иванов", "Иван", LocalDateTime.now(), Status.IN_PROGRESS,
+                null, "name", null, null, null, TestStatus.PENDING);
+
+        assertTrue(testService.getCachedTestPdf(report).isEmpty());
+        verifyNoInteractions(pdfReportCache);
+    }
+
+    @Test
+    void getCachedTestPdf_ShouldRenderOnce_WhenTestCompleted() {
+        TestReport report = new TestReport(1L, 1L, "Иванов", "Иван", LocalDateTime.now(), Status.COMPLETED,
+                null, "name", LocalDateTime.now(), "5.2", "3.5-5.5", TestStatus.COMPLETED);
+        String version = PdfReportCache.version(report);
+        Path cached = Path.of("1-" + version + ".pdf");
+        when(pdfReportCache.find(1L, version)).thenReturn(Optional.empty(), Optional.of(cached));
+        when(pdfReportCache.store(eq(1L), eq(version), any())).thenReturn(cached);
+
+        assertEquals(Optional.of(cached), testService.getCachedTestPdf(report));
+        assertEquals(Optional.of(cached), testService.getCachedTestPdf(report));
+        verify(pdfReportCache, times(1)).store(eq(1L), eq(version), any());
+    }
+
+    @Test
+    void createTests_ShouldSaveValidItems_AndReportFailedOnes() {
+        TestRequestDTO missingOrder = new TestRequestDTO(2L, 1L, "Результат", "Значения", TestStatus.PENDING, null);
+        TestRequestDTO invalid = new TestRequestDTO(1L, 1L, null, "Значения", TestStatus.PENDING, null);
+        when(orderRepository.findExistingIds(anyCollection())).thenReturn(List.of(1L));
+        when(orderRepository.getReferenceById(1L)).thenReturn(order);
+        when(testTypeCatalog.findById(1L)).thenReturn(Optional.of(testType));
+        when(testMapper.toEntity(testRequestDTO, order, testType)).thenReturn(test);
+        when(testRepository.saveAll(List.of(test))).thenReturn(List.of(test));
+        when(testMapper.toResponseDTO(test)).thenReturn(testResponseDTO);
+
+        List<TestBatchItemDTO> result = testService.createTests(List.of(missingOrder, testRequestDTO, invalid));
+
+        assertEquals(3, result.size());
+        assertFalse(result.get(0).isSuccess());
+        assertEquals("Заявки с id-2 не найдено", result.get(0).getError());
+        assertTrue(result.get(1).isSuccess());
+        assertEquals(1, result.get(1).getIndex());
+        assertEquals(testResponseDTO, result.get(1).getTest());
+        assertFalse(result.get(2).isSuccess());
+        assertTrue(result.get(2).getError().startsWith("result"));
+        verify(orderRepository, times(1)).findExistingIds(anyCollection());
+        verify(cacheServiceImpl).evictMissing("tests", 1L);
+    }
+
+    @Test
+    void createTest_ShouldNotTouchOrderCounters_WhenTestAlreadyCompleted() {
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+        when(testTypeCatalog.findById(1L)).thenReturn(Optional.of(testType));
+        when(testMapper.toEntity(testRequestDTO, order, testType)).thenReturn(test);
+        when(testRepository.save(test)).thenReturn(test);
+
+        testService.createTest(testRequestDTO);
+
+        verifyNoInteractions(orderServiceImpl);
+    }
+
+    @Test
+    void createTests_ShouldRejectPendingTests_ForCompletedOrders() {
+        TestRequestDTO pending = new TestRequestDTO(1L, 1L, "Результат", "Значения", TestStatus.PENDING, null);
+        when(orderRepository.findExistingIds(anyCollection())).thenReturn(List.of(1L));
+        when(orderRepository.findCompletedIds(anyCollection())).thenReturn(List.of(1L));
+
+        List<TestBatchItemDTO> result = testService.createTests(List.of(pending));
+
+        assertFalse(result.get(0).isSuccess());
+        assertEquals("Заявка с id-1 завершена, добавление незавершенных исследований недопустимо",
+                result.get(0).getError());
+        verify(testRepository).saveAll(List.of());
+    }
+
+    @Test
+    void createTests_ShouldReportNullElement_AsItemFailure() {
+        when(orderRepository.findExistingIds(anyCollection())).thenReturn(List.of(1L));
+        when(orderRepository.getReferenceById(1L)).thenReturn(order);
+        when(testTypeCatalog.findById(1L)).thenReturn(Optional.of(testType));
+        when(testMapper.toEntity(testRequestDTO, order, testType)).thenReturn(test);
+        when(testRepository.saveAll(List.of(test))).thenReturn(List.of(test));
+
+        List<TestBatchItemDTO> result = testService.createTests(Arrays.asList(testRequestDTO, null));
+
+        assertTrue(result.get(0).isSuccess());
+        assertFalse(result.get(1).isSuccess());
+        assertEquals("пустой элемент", result.get(1).getError());
+    }
+
+    @Test
+    void updateTestResults_ShouldReportNullElement_AsItemFailure() {
+        List<TestBatchItemDTO> result = testService.updateTestResults(Arrays.asList(null, null));
+
+        assertEquals("пустой элемент", result.get(0).getError());
+        assertEquals("пустой элемент", result.get(1).getError());
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void createTests_ShouldThrowException_WhenBatchTooLarge() {
+        List<TestRequestDTO> batch = List.of(testRequestDTO, testRequestDTO, testRequestDTO, testRequestDTO);
+
+        assertThrows(BatchTooLargeException.class, () -> testService.createTests(batch));
+        verifyNoInteractions(testRepository);
+    }
+
+    @Test
+    void updateTestResults_ShouldSendOneJdbcBatch_InRequestOrder() {
+        when(testRepository.findExistingIds(anyCollection())).thenReturn(List.of(1L));
+        when(testRepository.findProjectedByIdIn(anyCollection())).thenReturn(List.of(testResponseDTO));
+
+        List<TestBatchItemDTO> result = testService.updateTestResults(List.of(
+                new TestResultRequestDTO(1L, "Первый"),
+                new TestResultRequestDTO(5L, "Нет такого"),
+                new TestResultRequestDTO(1L, "Второй")
+        ));
+
+        ArgumentCaptor<MapSqlParameterSource[]> captor = ArgumentCaptor.forClass(MapSqlParameterSource[].class);
+        verify(jdbcTemplate).batchUpdate(eq(TestRepository.APPEND_RESULT_SQL), captor.capture());
+        assertEquals(2, captor.getValue().length);
+        assertEquals("Первый", captor.getValue()[0].getValue("result"));
+        assertEquals("Второй", captor.getValue()[1].getValue("result"));
+        assertTrue(result.get(0).isSuccess());
+        assertEquals("Тест с id-5 не найден", result.get(1).getError());
+        assertEquals(testResponseDTO, result.get(2).getTest());
+        verify(cacheServiceImpl).evictTestCachesByIds(Set.of(1L));
+    }
+
+    @Test
+    void updateTestResults_ShouldSkipUpdate_WhenAllItemsFail() {
+        when(testRepository.findExistingIds(anyCollection())).thenReturn(List.of());
+
+        List<TestBatchItemDTO> result = testService.updateTestResults(List.of(new TestResultRequestDTO(5L, "Нет")));
+
+        assertFalse(result.get(0).isSuccess());
+        verifyNoInteractions(jdbcTemplate);
     }
-}
\ No newline at end of file
+}
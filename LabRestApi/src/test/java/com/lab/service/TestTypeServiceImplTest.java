@@ -1,11 +1,15 @@
 package com.lab.service;
 
+import com.lab.cache.TestTypeCatalog;
+import com.lab.cache.impl.CacheServiceImpl;
 import com.lab.dto.request.TestTypeRequestDTO;
 import com.lab.dto.response.TestTypeResponseDTO;
 import com.lab.entity.*;
 import com.lab.exception.TestTypeNotFoundException;
 import com.lab.mapper.impl.TestTypeMapperImpl;
+import com.lab.repository.TestRepository;
 import com.lab.repository.TestTypeRepository;
+import com.lab.service.impl.OrderServiceImpl;
 import com.lab.service.impl.TestTypeServiceImpl;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -32,6 +36,18 @@ public class TestTypeServiceImplTest {
     @Mock
     private TestTypeMapperImpl testTypeMapper;
 
+    @Mock
+    private TestTypeCatalog testTypeCatalog;
+
+    @Mock
+    private OrderServiceImpl orderServiceImpl;
+
+    @Mock
+    private TestRepository testRepository;
+
+    @Mock
+    private CacheServiceImpl cacheServiceImpl;
+
     @InjectMocks
     private TestTypeServiceImpl testTypeService;
 
@@ -40,14 +56,24 @@ public class TestTypeServiceImplTest {
             "HIV",
             "CODE_HIV",
             "HIV_TEST123",
-            new BigDecimal("30.00")
+            new BigDecimal("30.00"),
+            null,
+            null,
+            null,
+            null,
+            null
     );
 
     private final TestTypeRequestDTO testTypeRequestDTO = new TestTypeRequestDTO(
             "HIV",
             "CODE_HIV",
             "HIV_TEST123",
-            new BigDecimal("30.00")
+            new BigDecimal("30.00"),
+            null,
+            null,
+            null,
+            null,
+            null
     );
 
     private final TestTypeResponseDTO testTypeResponseDTO = new TestTypeResponseDTO(
@@ -55,31 +81,31 @@ public class TestTypeServiceImplTest {
             "HIV",
             "CODE_HIV",
             "HIV_TEST123",
-            new BigDecimal("30.00")
+            new BigDecimal("30.00"),
+            null,
+            null,
+            null,
+            null,
+            null
     );
 
     @Test
     void getAllTestTypes_ShouldReturnTestTypes_WhenTestTypesExist() {
         Pageable pageable = PageRequest.of(0, 10);
-        Page<TestType> testTypesPage = mock(Page.class);
-        when(testTypeRepository.findAll(pageable)).thenReturn(testTypesPage);
-        when(testTypesPage.isEmpty()).thenReturn(false);
-        when(testTypesPage.getContent()).thenReturn(List.of(testType));
-        when(testTypeMapper.toResponseDTOList(anyList())).thenReturn(List.of(testTypeResponseDTO));
+        when(testTypeCatalog.findAll()).thenReturn(List.of(testType));
+        when(testTypeMapper.toResponseDTO(any(TestType.class))).thenReturn(testTypeResponseDTO);
 
         Page<TestTypeResponseDTO> result = testTypeService.getAllTestTypes(pageable);
 
         assertFalse(result.isEmpty());
         assertEquals(1, result.getTotalElements());
-        verify(testTypeRepository).findAll(pageable);
+        verifyNoInteractions(testTypeRepository);
     }
 
     @Test
     void getAllTestTypes_ShouldThrowException_WhenNoTestTypesFound() {
         Pageable pageable = PageRequest.of(0, 10);
-        Page<TestType> testTypesPage = mock(Page.class);
-        when(testTypeRepository.findAll(pageable)).thenReturn(testTypesPage);
-        when(testTypesPage.isEmpty()).thenReturn(true);
+        when(testTypeCatalog.findAll()).thenReturn(List.of());
 
         assertThrows(TestTypeNotFoundException.class, () ->
                 testTypeService.getAllTestTypes(pageable));
@@ -87,19 +113,19 @@ public class TestTypeServiceImplTest {
 
     @Test
     void getTestTypeById_ShouldReturnTestType_WhenTestTypeExists() {
-        when(testTypeRepository.findById(1L)).thenReturn(Optional.of(testType));
+        when(testTypeCatalog.findById(1L)).thenReturn(Optional.of(testType));
         when(testTypeMapper.toResponseDTO(any(TestType.class))).thenReturn(testTypeResponseDTO);
 
         TestTypeResponseDTO result = testTypeService.getTestTypeById(1L);
 
         assertNotNull(result);
         assertEquals("HIV", result.getName());
-        verify(testTypeRepository).findById(1L);
+        verifyNoInteractions(testTypeRepository);
     }
 
     @Test
     void getTestTypeById_ShouldThrowException_WhenTestTypeNotFound() {
-        when(testTypeRepository.findById(1L)).thenReturn(Optional.empty());
+        when(testTypeCatalog.findById(1L)).thenReturn(Optional.empty());
 
         assertThrows(TestTypeNotFoundException.class, () ->
                 testTypeService.getTestTypeById(1L));
@@ -116,6 +142,7 @@ public class TestTypeServiceImplTest {
         assertNotNull(result);
         assertEquals("CODE_HIV", result.getCode());
         verify(testTypeRepository).save(any(TestType.class));
+        verify(testTypeCatalog).put(testType);
     }
 
     @Test
@@ -145,6 +172,18 @@ public class TestTypeServiceImplTest {
         testTypeService.deleteTestType(1L);
 
         verify(testTypeRepository).delete(testType);
+        verify(testTypeCatalog).remove(1L);
+    }
+
+    @Test
+    void deleteTestType_ShouldRecountPendingTests_OfAffectedOrders() {
+        when(testTypeRepository.findById(1L)).thenReturn(Optional.of(testType));
+        when(testRepository.findOrderIdsByTestTypeId(1L)).thenReturn(List.of(5L, 6L));
+
+        testTypeService.deleteTestType(1L);
+
+        verify(testRepository).deleteByTestTypeIdInBulk(1L);
+        verify(orderServiceImpl).recountPendingTests(List.of(5L, 6L));
     }
 
     @Test
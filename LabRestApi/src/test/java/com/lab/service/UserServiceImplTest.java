@@ -0,0 +1,59 @@
+package com.lab.service;
+
+import com.lab.entity.Role;
+import com.lab.entity.User;
+import com.lab.repository.UserRepository;
+import com.lab.service.impl.UserServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+
+@ExtendWith(MockitoExtension.class)
+public class UserServiceImplTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private UserServiceImpl userService;
+
+    private final User user = new User(1L, "user", "hash", "user@lab.ru", Role.ROLE_USER);
+
+    @BeforeEach
+    void setUp() {
+        userService = new UserServiceImpl(userRepository, new ConcurrentMapCacheManager("users"));
+    }
+
+    @Test
+    void loadUserByUsername_ShouldReadRepository_OnEveryCall() {
+        when(userRepository.findByUsername("user")).thenReturn(Optional.of(user));
+
+        userService.userDetailsService().loadUserByUsername("user");
+        userService.userDetailsService().loadUserByUsername("user");
+
+        verify(userRepository, times(2)).findByUsername("user");
+    }
+
+    @Test
+    void getCachedByUsername_ShouldReadRepositoryOnce_AndReturnSeparateCopies() {
+        when(userRepository.findByUsername("user")).thenReturn(Optional.of(user));
+
+        User first = userService.getCachedByUsername("user");
+        User second = userService.getCachedByUsername("user");
+
+        verify(userRepository, times(1)).findByUsername("user");
+        assertNotSame(user, first);
+        assertNotSame(first, second);
+        assertEquals("user@lab.ru", second.getEmail());
+        first.setEmail("changed@lab.ru");
+        assertEquals("user@lab.ru", userService.getCachedByUsername("user").getEmail());
+    }
+}
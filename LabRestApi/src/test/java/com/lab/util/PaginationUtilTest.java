@@ -0,0 +1,50 @@
+package com.lab.util;
+
+import com.lab.exception.InvalidCursorException;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+public class PaginationUtilTest {
+
+    @Test
+    void decodeCursor_ShouldRejectSort_WithKeysetPagination() {
+        PageRequest pageable = PageRequest.of(0, 10, Sort.by("name"));
+        String cursor = PaginationUtil.encodeCursor(5L);
+
+        assertThrows(InvalidCursorException.class, () -> PaginationUtil.decodeCursor(cursor, pageable));
+        assertEquals(5L, PaginationUtil.decodeCursor(cursor, PageRequest.of(0, 10)));
+    }
+
+    @Test
+    void generateCursorHttpHeaders_ShouldKeepCountParameter_InLinks() {
+        SliceImpl<Long> slice = new SliceImpl<>(List.of(1L, 2L), PageRequest.of(0, 2), true);
+
+        HttpHeaders headers = PaginationUtil.generateCursorHttpHeaders(slice, Function.identity(), 7L, "/api/v1/orders");
+
+        assertEquals("7", headers.getFirst("X-Total-Count"));
+        String link = headers.getFirst(HttpHeaders.LINK);
+        assertEquals(
+                "</api/v1/orders?after=" + PaginationUtil.encodeCursor(2L) + "&size=2&count=true>; rel=\"next\","
+                        + "</api/v1/orders?after=&size=2&count=true>; rel=\"first\"",
+                link);
+    }
+
+    @Test
+    void generateCursorHttpHeaders_ShouldOmitCount_WhenNotRequested() {
+        SliceImpl<Long> slice = new SliceImpl<>(List.of(1L), PageRequest.of(0, 2), false);
+
+        HttpHeaders headers = PaginationUtil.generateCursorHttpHeaders(slice, Function.identity(), null, "/api/v1/orders");
+
+        assertNull(headers.getFirst("X-Total-Count"));
+        assertEquals("</api/v1/orders?after=&size=2>; rel=\"first\"", headers.getFirst(HttpHeaders.LINK));
+    }
+}